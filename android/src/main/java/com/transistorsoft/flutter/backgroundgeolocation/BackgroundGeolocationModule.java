@@ -5,6 +5,7 @@ import android.app.Application;
 import android.content.Context;
 import android.os.Build;
 import android.os.Bundle;
+import android.os.Looper;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
@@ -19,6 +20,7 @@ import com.transistorsoft.locationmanager.config.TSConfig;
 import com.transistorsoft.locationmanager.adapter.callback.TSBackgroundTaskCallback;
 import com.transistorsoft.locationmanager.adapter.callback.TSCallback;
 import com.transistorsoft.locationmanager.adapter.callback.TSEmailLogCallback;
+import com.transistorsoft.locationmanager.adapter.callback.TSEnabledChangeCallback;
 import com.transistorsoft.locationmanager.adapter.callback.TSGeofenceExistsCallback;
 import com.transistorsoft.locationmanager.adapter.callback.TSGetCountCallback;
 import com.transistorsoft.locationmanager.adapter.callback.TSGetGeofenceCallback;
@@ -27,8 +29,10 @@ import com.transistorsoft.locationmanager.adapter.callback.TSGetLocationsCallbac
 import com.transistorsoft.locationmanager.adapter.callback.TSGetLogCallback;
 import com.transistorsoft.locationmanager.adapter.callback.TSInsertLocationCallback;
 import com.transistorsoft.locationmanager.adapter.callback.TSLocationCallback;
+import com.transistorsoft.locationmanager.adapter.callback.TSLocationProviderChangeCallback;
 import com.transistorsoft.locationmanager.adapter.callback.TSPlayServicesConnectErrorCallback;
 import com.transistorsoft.locationmanager.adapter.callback.TSRequestPermissionCallback;
+import com.transistorsoft.locationmanager.adapter.callback.TSScheduleCallback;
 import com.transistorsoft.locationmanager.adapter.callback.TSSyncCallback;
 import com.transistorsoft.locationmanager.http.TSAuthorization;
 import com.transistorsoft.locationmanager.http.TransistorAuthorizationToken;
@@ -38,11 +42,13 @@ import com.transistorsoft.locationmanager.data.SQLQuery;
 import com.transistorsoft.locationmanager.device.DeviceInfo;
 import com.transistorsoft.locationmanager.device.DeviceSettingsRequest;
 import com.transistorsoft.locationmanager.event.LocationEvent;
+import com.transistorsoft.locationmanager.event.LocationProviderChangeEvent;
 import com.transistorsoft.locationmanager.event.TerminateEvent;
 import com.transistorsoft.locationmanager.geofence.TSGeofence;
 import com.transistorsoft.locationmanager.location.TSCurrentPositionRequest;
 import com.transistorsoft.locationmanager.location.TSWatchPositionRequest;
 import com.transistorsoft.locationmanager.logger.TSLog;
+import com.transistorsoft.locationmanager.scheduler.ScheduleEvent;
 import com.transistorsoft.locationmanager.scheduler.TSScheduleManager;
 import com.transistorsoft.locationmanager.util.Sensors;
 
@@ -51,10 +57,17 @@ import org.json.JSONException;
 import org.json.JSONObject;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import io.flutter.plugin.common.BinaryMessenger;
 import io.flutter.plugin.common.EventChannel;
@@ -87,6 +100,13 @@ public class BackgroundGeolocationModule  implements MethodChannel.MethodCallHan
     private static final String ACTION_SHOW_SETTINGS     = "showSettings";
     private static final String ACTION_REGISTER_PLUGIN   = "registerPlugin";
     private static final String ACTION_REQUEST_TEMPORARY_FULL_ACCURACY = "requestTemporaryFullAccuracy";
+    private static final String ACTION_GET_PLUGIN_METRICS = "getPluginMetrics";
+    private static final String ACTION_SET_PLUGIN_METRICS_LOG_INTERVAL = "setPluginMetricsLogInterval";
+    private static final String ACTION_BATCH             = "batch";
+    private static final String ACTION_PATCH_CONFIG      = "patchConfig";
+    private static final String ACTION_INSERT_LOCATIONS  = "insertLocations";
+    private static final String ACTION_AGGREGATE_LOCATIONS = "aggregateLocations";
+    private static final int DEFAULT_PAGE_LIMIT          = 100;
     private static final String JOB_SERVICE_CLASS         = "com.transistorsoft.flutter.backgroundgeolocation.HeadlessTask";
     private boolean mIsInitialized  = false;
     private boolean mReady          = false;
@@ -96,10 +116,18 @@ public class BackgroundGeolocationModule  implements MethodChannel.MethodCallHan
     private Context mContext;
     private Activity mActivity;
 
+    // Cached state snapshot (TSConfig#toMap), rebuilt only after it's invalidated by a change of state, whether by the
+    // plugin or by the SDK (see #subscribeStateListeners).  The version is incremented upon each invalidation.
+    private Map<String, Object> mState;
+    private long mStateVersion = 0;
+    private boolean mStateDirty = true;
+    private final List<AutoCloseable> mStateSubscriptions = new ArrayList<>();
+
     void onAttachedToEngine(Context context, final BinaryMessenger messenger) {
         mContext = context;
 
         mMessengers.add(messenger);
+        subscribeStateListeners();
         MethodChannel methodChannel = new MethodChannel(messenger, METHOD_CHANNEL_NAME);
         methodChannel.setMethodCallHandler(this);
         mMethodChannels.put(messenger, methodChannel);
@@ -118,6 +146,53 @@ public class BackgroundGeolocationModule  implements MethodChannel.MethodCallHan
         }
 
         cancelStreamHandlersForMessenger(messenger);
+        if (mMessengers.isEmpty()) {
+            unsubscribeStateListeners();
+        }
+    }
+
+    /**
+     * Invalidate the cached state whenever the SDK changes it:  enabled, isMoving, odometer, provider and schedule.
+     */
+    private synchronized void subscribeStateListeners() {
+        if (!mStateSubscriptions.isEmpty()) return;
+        BackgroundGeolocation adapter = BackgroundGeolocation.getInstance(mContext);
+        TSLocationCallback onLocation = new TSLocationCallback() {
+            @Override public void onLocation(LocationEvent event) { invalidateState(); }
+            @Override public void onError(Integer error) { }
+        };
+        mStateSubscriptions.add(adapter.onLocation(onLocation));
+        mStateSubscriptions.add(adapter.onMotionChange(onLocation));
+        mStateSubscriptions.add(adapter.onEnabledChange(new TSEnabledChangeCallback() {
+            @Override public void onEnabledChange(boolean enabled) { invalidateState(); }
+        }));
+        mStateSubscriptions.add(adapter.onLocationProviderChange(new TSLocationProviderChangeCallback() {
+            @Override public void onLocationProviderChange(LocationProviderChangeEvent event) { invalidateState(); }
+        }));
+        mStateSubscriptions.add(adapter.onSchedule(new TSScheduleCallback() {
+            @Override public void onSchedule(ScheduleEvent event) { invalidateState(); }
+        }));
+    }
+
+    /**
+     * The SDK's listeners have been removed (BackgroundGeolocation#removeListeners):  the state listeners are gone too.
+     * Add them again and invalidate the state, since changes may have been missed meanwhile.
+     */
+    private synchronized void resubscribeStateListeners() {
+        mStateSubscriptions.clear();
+        subscribeStateListeners();
+        invalidateState();
+    }
+
+    private synchronized void unsubscribeStateListeners() {
+        for (AutoCloseable subscription : mStateSubscriptions) {
+            try {
+                if (subscription != null) subscription.close();
+            } catch (Exception e) {
+                Log.d(BackgroundGeolocation.TAG, "Failed to close state listener: " + e);
+            }
+        }
+        mStateSubscriptions.clear();
     }
 
     void setActivity(@Nullable final Activity activity) {
@@ -144,6 +219,7 @@ public class BackgroundGeolocationModule  implements MethodChannel.MethodCallHan
                     BackgroundGeolocation adapter = BackgroundGeolocation.getInstance(activity);
                     adapter.setActivity(activity);
                     adapter.removeListeners();
+                    resubscribeStateListeners();
                     TSConfig config = TSConfig.getInstance(mContext.getApplicationContext());
                     config.setUseCLLocationAccuracy(true);
                     Editor ed = config.edit();
@@ -175,22 +251,11 @@ public class BackgroundGeolocationModule  implements MethodChannel.MethodCallHan
             if (mStreamHandlers.containsKey(messenger)) return;
         }
 
+        // Handlers are created on demand, when Dart first listens to each EventChannel.
         List<EventChannel.StreamHandler> streamHandlers = new ArrayList<>();
-
-        streamHandlers.add(new LocationStreamHandler().register(mContext, messenger));
-        streamHandlers.add(new MotionChangeStreamHandler().register(mContext, messenger));
-        streamHandlers.add(new ActivityChangeStreamHandler().register(mContext, messenger));
-        streamHandlers.add(new GeofencesChangeStreamHandler().register(mContext, messenger));
-        streamHandlers.add(new GeofenceStreamHandler().register(mContext, messenger));
-        streamHandlers.add(new HeartbeatStreamHandler().register(mContext, messenger));
-        streamHandlers.add(new HttpStreamHandler().register(mContext, messenger));
-        streamHandlers.add(new ScheduleStreamHandler().register(mContext, messenger));
-        streamHandlers.add(new ConnectivityChangeStreamHandler().register(mContext, messenger));
-        streamHandlers.add(new EnabledChangeStreamHandler().register(mContext, messenger));
-        streamHandlers.add(new ProviderChangeStreamHandler().register(mContext, messenger));
-        streamHandlers.add(new PowerSaveChangeStreamHandler().register(mContext, messenger));
-        streamHandlers.add(new NotificationActionStreamHandler().register(mContext, messenger));
-        streamHandlers.add(new AuthorizationStreamHandler().register(mContext, messenger));
+        for (String event : LazyStreamHandler.EVENTS) {
+            streamHandlers.add(new LazyStreamHandler(event).register(mContext, messenger));
+        }
 
         synchronized (mStreamHandlers) {
             mStreamHandlers.put(messenger, streamHandlers);
@@ -242,115 +307,425 @@ public class BackgroundGeolocationModule  implements MethodChannel.MethodCallHan
         GoogleApiAvailability.getInstance().getErrorDialog(mActivity, errorCode, 1001).show();
     }
 
+    /**
+     * Where a method-call is executed.  PLATFORM actions run immediately on the platform-thread (the fast-path for
+     * lightweight calls, eg: getOdometer);  BACKGROUND actions, which convert large result-sets, are executed upon the
+     * SDK thread-pool and reply on the main-thread.
+     */
+    private enum ThreadPolicy {
+        PLATFORM,
+        BACKGROUND
+    }
+
+    /**
+     * Handler of a method-call, registered in the dispatch-table by {@link #registerActions()}.
+     */
+    private static abstract class Action {
+        final ThreadPolicy policy;
+        // The registered method name:  the key of the action's metrics, whatever the case of the method-call.
+        String method;
+
+        Action() {
+            this(ThreadPolicy.PLATFORM);
+        }
+
+        Action(ThreadPolicy policy) {
+            this.policy = policy;
+        }
+
+        abstract void invoke(@NonNull MethodCall call, @NonNull MethodChannel.Result result);
+    }
+
+    // Method-call dispatch-table, keyed by lower-cased method name.
+    private final Map<String, Action> mActions = new HashMap<>();
+
+    BackgroundGeolocationModule() {
+        registerActions();
+    }
+
+    private void register(String method, Action action) {
+        String key = method.toLowerCase(Locale.US);
+        // First registration wins, preserving the precedence of the former if / else chain.
+        if (!mActions.containsKey(key)) {
+            action.method = method;
+            mActions.put(key, action);
+        }
+    }
+
     @SuppressWarnings("unchecked")
+    private void registerActions() {
+        register(ACTION_READY, new Action() {
+            @Override public void invoke(@NonNull MethodCall call, @NonNull MethodChannel.Result result) {
+                Map<String, Object> params = (Map<String, Object>) call.arguments;
+                ready(params, result);
+            }
+        });
+        register(ACTION_GET_STATE, new Action() {
+            @Override public void invoke(@NonNull MethodCall call, @NonNull MethodChannel.Result result) {
+                getState(call.arguments, result);
+            }
+        });
+        register(Actions.START, new Action() {
+            @Override public void invoke(@NonNull MethodCall call, @NonNull MethodChannel.Result result) {
+                start(result);
+            }
+        });
+        register(Actions.STOP, new Action() {
+            @Override public void invoke(@NonNull MethodCall call, @NonNull MethodChannel.Result result) {
+                stop(result);
+            }
+        });
+        register(Actions.START_GEOFENCES, new Action() {
+            @Override public void invoke(@NonNull MethodCall call, @NonNull MethodChannel.Result result) {
+                startGeofences(result);
+            }
+        });
+        register(Actions.START_SCHEDULE, new Action() {
+            @Override public void invoke(@NonNull MethodCall call, @NonNull MethodChannel.Result result) {
+                startSchedule(result);
+            }
+        });
+        register(Actions.STOP_SCHEDULE, new Action() {
+            @Override public void invoke(@NonNull MethodCall call, @NonNull MethodChannel.Result result) {
+                stopSchedule(result);
+            }
+        });
+        register(Actions.START_BACKGROUND_TASK, new Action() {
+            @Override public void invoke(@NonNull MethodCall call, @NonNull MethodChannel.Result result) {
+                startBackgroundTask(result);
+            }
+        });
+        register(Actions.FINISH, new Action() {
+            @Override public void invoke(@NonNull MethodCall call, @NonNull MethodChannel.Result result) {
+                stopBackgroundTask((int) call.arguments, result);
+            }
+        });
+        register(ACTION_RESET, new Action() {
+            @Override public void invoke(@NonNull MethodCall call, @NonNull MethodChannel.Result result) {
+                reset(call.arguments, result);
+            }
+        });
+        register(Actions.SET_CONFIG, new Action() {
+            @Override public void invoke(@NonNull MethodCall call, @NonNull MethodChannel.Result result) {
+                setConfig((Map) call.arguments, result);
+            }
+        });
+        register(ACTION_PATCH_CONFIG, new Action() {
+            @Override public void invoke(@NonNull MethodCall call, @NonNull MethodChannel.Result result) {
+                patchConfig((Map) call.arguments, result);
+            }
+        });
+        register(Actions.CHANGE_PACE, new Action() {
+            @Override public void invoke(@NonNull MethodCall call, @NonNull MethodChannel.Result result) {
+                changePace(call, result);
+            }
+        });
+        register(Actions.GET_CURRENT_POSITION, new Action() {
+            @Override public void invoke(@NonNull MethodCall call, @NonNull MethodChannel.Result result) {
+                getCurrentPosition((Map) call.arguments, result);
+            }
+        });
+        register(Actions.WATCH_POSITION, new Action() {
+            @Override public void invoke(@NonNull MethodCall call, @NonNull MethodChannel.Result result) {
+                watchPosition((Map) call.arguments, result);
+            }
+        });
+        register(Actions.STOP_WATCH_POSITION, new Action() {
+            @Override public void invoke(@NonNull MethodCall call, @NonNull MethodChannel.Result result) {
+                stopWatchPosition(result);
+            }
+        });
+        register(Actions.GET_LOCATIONS, new Action(ThreadPolicy.BACKGROUND) {
+            @Override public void invoke(@NonNull MethodCall call, @NonNull MethodChannel.Result result) {
+                getLocations(call.arguments, result);
+            }
+        });
+        register(Actions.INSERT_LOCATION, new Action() {
+            @Override public void invoke(@NonNull MethodCall call, @NonNull MethodChannel.Result result) {
+                insertLocation((Map) call.arguments, result);
+            }
+        });
+        register(ACTION_INSERT_LOCATIONS, new Action(ThreadPolicy.BACKGROUND) {
+            @Override public void invoke(@NonNull MethodCall call, @NonNull MethodChannel.Result result) {
+                insertLocations((List) call.arguments, result);
+            }
+        });
+        register(ACTION_AGGREGATE_LOCATIONS, new Action(ThreadPolicy.BACKGROUND) {
+            @Override public void invoke(@NonNull MethodCall call, @NonNull MethodChannel.Result result) {
+                aggregateLocations((Map) call.arguments, result);
+            }
+        });
+        register(Actions.GET_COUNT, new Action() {
+            @Override public void invoke(@NonNull MethodCall call, @NonNull MethodChannel.Result result) {
+                getCount(call.arguments, result);
+            }
+        });
+        register(Actions.DESTROY_LOCATIONS, new Action() {
+            @Override public void invoke(@NonNull MethodCall call, @NonNull MethodChannel.Result result) {
+                destroyLocations(call.arguments, result);
+            }
+        });
+        register(Actions.DESTROY_LOCATION, new Action() {
+            @Override public void invoke(@NonNull MethodCall call, @NonNull MethodChannel.Result result) {
+                destroyLocation((String) call.arguments, result);
+            }
+        });
+        register(Actions.SYNC, new Action(ThreadPolicy.BACKGROUND) {
+            @Override public void invoke(@NonNull MethodCall call, @NonNull MethodChannel.Result result) {
+                sync(call.arguments, result);
+            }
+        });
+        register(Actions.GET_ODOMETER, new Action() {
+            @Override public void invoke(@NonNull MethodCall call, @NonNull MethodChannel.Result result) {
+                getOdometer(result);
+            }
+        });
+        register(Actions.SET_ODOMETER, new Action() {
+            @Override public void invoke(@NonNull MethodCall call, @NonNull MethodChannel.Result result) {
+                setOdometer((Double) call.arguments, result);
+            }
+        });
+        register(Actions.ADD_GEOFENCE, new Action() {
+            @Override public void invoke(@NonNull MethodCall call, @NonNull MethodChannel.Result result) {
+                addGeofence((Map) call.arguments, result);
+            }
+        });
+        register(Actions.ADD_GEOFENCES, new Action() {
+            @Override public void invoke(@NonNull MethodCall call, @NonNull MethodChannel.Result result) {
+                if (call.arguments instanceof Map) {
+                    addGeofencesPartial((Map) call.arguments, result);
+                } else {
+                    addGeofences((List) call.arguments, result);
+                }
+            }
+        });
+        register(Actions.REMOVE_GEOFENCE, new Action() {
+            @Override public void invoke(@NonNull MethodCall call, @NonNull MethodChannel.Result result) {
+                removeGeofence((String) call.arguments, result);
+            }
+        });
+        register(Actions.REMOVE_GEOFENCES, new Action() {
+            @Override public void invoke(@NonNull MethodCall call, @NonNull MethodChannel.Result result) {
+                removeGeofences(result);
+            }
+        });
+        register(Actions.GET_GEOFENCES, new Action(ThreadPolicy.BACKGROUND) {
+            @Override public void invoke(@NonNull MethodCall call, @NonNull MethodChannel.Result result) {
+                getGeofences(result);
+            }
+        });
+        register(Actions.GET_GEOFENCE, new Action() {
+            @Override public void invoke(@NonNull MethodCall call, @NonNull MethodChannel.Result result) {
+                getGeofence((String) call.arguments, result);
+            }
+        });
+        register(Actions.GEOFENCE_EXISTS, new Action() {
+            @Override public void invoke(@NonNull MethodCall call, @NonNull MethodChannel.Result result) {
+                geofenceExists((String) call.arguments, result);
+            }
+        });
+        register(TSLog.ACTION_LOG, new Action() {
+            @Override public void invoke(@NonNull MethodCall call, @NonNull MethodChannel.Result result) {
+                log((List) call.arguments, result);
+            }
+        });
+        register(TSLog.ACTION_GET_LOG, new Action(ThreadPolicy.BACKGROUND) {
+            @Override public void invoke(@NonNull MethodCall call, @NonNull MethodChannel.Result result) {
+                getLog((Map) call.arguments, result);
+            }
+        });
+        register(TSLog.ACTION_EMAIL_LOG, new Action() {
+            @Override public void invoke(@NonNull MethodCall call, @NonNull MethodChannel.Result result) {
+                emailLog((List) call.arguments, result);
+            }
+        });
+        register(TSLog.ACTION_UPLOAD_LOG, new Action() {
+            @Override public void invoke(@NonNull MethodCall call, @NonNull MethodChannel.Result result) {
+                uploadLog((List) call.arguments, result);
+            }
+        });
+        register(Actions.DESTROY_LOG, new Action() {
+            @Override public void invoke(@NonNull MethodCall call, @NonNull MethodChannel.Result result) {
+                destroyLog(result);
+            }
+        });
+        register(ACTION_LOG, new Action() {
+            @Override public void invoke(@NonNull MethodCall call, @NonNull MethodChannel.Result result) {
+                Map<String, String> args = (Map) call.arguments;
+                log(args.get("level"), args.get("message"), result);
+            }
+        });
+        register(Actions.GET_SENSORS, new Action() {
+            @Override public void invoke(@NonNull MethodCall call, @NonNull MethodChannel.Result result) {
+                getSensors(result);
+            }
+        });
+        register(Actions.IS_POWER_SAVE_MODE, new Action() {
+            @Override public void invoke(@NonNull MethodCall call, @NonNull MethodChannel.Result result) {
+                isPowerSaveMode(result);
+            }
+        });
+        register(Actions.IS_IGNORING_BATTERY_OPTIMIZATIONS, new Action() {
+            @Override public void invoke(@NonNull MethodCall call, @NonNull MethodChannel.Result result) {
+                isIgnoringBatteryOptimizations(result);
+            }
+        });
+        register(ACTION_REQUEST_SETTINGS, new Action() {
+            @Override public void invoke(@NonNull MethodCall call, @NonNull MethodChannel.Result result) {
+                requestSettings((List) call.arguments, result);
+            }
+        });
+        register(ACTION_SHOW_SETTINGS, new Action() {
+            @Override public void invoke(@NonNull MethodCall call, @NonNull MethodChannel.Result result) {
+                showSettings((List) call.arguments, result);
+            }
+        });
+        register(DeviceInfo.ACTION_GET_DEVICE_INFO, new Action() {
+            @Override public void invoke(@NonNull MethodCall call, @NonNull MethodChannel.Result result) {
+                getDeviceInfo(result);
+            }
+        });
+        register(Actions.PLAY_SOUND, new Action() {
+            @Override public void invoke(@NonNull MethodCall call, @NonNull MethodChannel.Result result) {
+                playSound((String) call.arguments, result);
+            }
+        });
+        register(ACTION_REGISTER_HEADLESS_TASK, new Action() {
+            @Override public void invoke(@NonNull MethodCall call, @NonNull MethodChannel.Result result) {
+                registerHeadlessTask((List<Object>) call.arguments, result);
+            }
+        });
+        register(Actions.GET_PROVIDER_STATE, new Action() {
+            @Override public void invoke(@NonNull MethodCall call, @NonNull MethodChannel.Result result) {
+                getProviderState(result);
+            }
+        });
+        register(Actions.REQUEST_PERMISSION, new Action() {
+            @Override public void invoke(@NonNull MethodCall call, @NonNull MethodChannel.Result result) {
+                requestPermission((String) call.arguments, result);
+            }
+        });
+        register(ACTION_REQUEST_TEMPORARY_FULL_ACCURACY, new Action() {
+            @Override public void invoke(@NonNull MethodCall call, @NonNull MethodChannel.Result result) {
+                requestTemporaryFullAccuracy((String) call.arguments, result);
+            }
+        });
+        register(ACTION_REGISTER_PLUGIN, new Action() {
+            @Override public void invoke(@NonNull MethodCall call, @NonNull MethodChannel.Result result) {
+                // No implementation; iOS only.
+                result.success(true);
+            }
+        });
+        register(TransistorAuthorizationToken.ACTION_GET, new Action() {
+            @Override public void invoke(@NonNull MethodCall call, @NonNull MethodChannel.Result result) {
+                getTransistorToken((List) call.arguments, result);
+            }
+        });
+        register(TransistorAuthorizationToken.ACTION_DESTROY, new Action() {
+            @Override public void invoke(@NonNull MethodCall call, @NonNull MethodChannel.Result result) {
+                destroyTransistorToken((String) call.arguments, result);
+            }
+        });
+        register(ACTION_GET_PLUGIN_METRICS, new Action() {
+            @Override public void invoke(@NonNull MethodCall call, @NonNull MethodChannel.Result result) {
+                getPluginMetrics((Map) call.arguments, result);
+            }
+        });
+        register(ACTION_SET_PLUGIN_METRICS_LOG_INTERVAL, new Action() {
+            @Override public void invoke(@NonNull MethodCall call, @NonNull MethodChannel.Result result) {
+                setPluginMetricsLogInterval((Number) call.arguments, result);
+            }
+        });
+        register(ACTION_BATCH, new Action() {
+            @Override public void invoke(@NonNull MethodCall call, @NonNull MethodChannel.Result result) {
+                batch((List) call.arguments, result);
+            }
+        });
+    }
+
     @Override
-    public void onMethodCall(@NonNull MethodCall call, @NonNull MethodChannel.Result result) {
-        if (call.method.equalsIgnoreCase(ACTION_READY)) {
-            Map<String, Object> params = (Map<String, Object>) call.arguments;
-            ready(params, result);
-        } else if (call.method.equals(ACTION_GET_STATE)) {
-            getState(result);
-
-        } else if (call.method.equalsIgnoreCase(Actions.START)) {
-            start(result);
-        } else if (call.method.equalsIgnoreCase(Actions.STOP)) {
-            stop(result);
-        } else if (call.method.equalsIgnoreCase(Actions.START_GEOFENCES)) {
-            startGeofences(result);
-        } else if (call.method.equalsIgnoreCase(Actions.START_SCHEDULE)) {
-            startSchedule(result);
-        } else if (call.method.equalsIgnoreCase(Actions.STOP_SCHEDULE)) {
-            stopSchedule(result);
-        } else if (call.method.equalsIgnoreCase(Actions.START_BACKGROUND_TASK)) {
-            startBackgroundTask(result);
-        } else if (call.method.equalsIgnoreCase(Actions.FINISH)) {
-            stopBackgroundTask((int) call.arguments, result);
-        } else if (call.method.equalsIgnoreCase(ACTION_RESET)) {
-            reset(call.arguments, result);
-        } else if (call.method.equalsIgnoreCase(Actions.SET_CONFIG)) {
-            setConfig((Map) call.arguments, result);
-        } else if (call.method.equalsIgnoreCase(Actions.CHANGE_PACE)) {
-            changePace(call, result);
-        } else if (call.method.equalsIgnoreCase(Actions.GET_CURRENT_POSITION)) {
-            getCurrentPosition((Map) call.arguments, result);
-        } else if (call.method.equalsIgnoreCase(Actions.WATCH_POSITION)) {
-            watchPosition((Map) call.arguments, result);
-        } else if (call.method.equalsIgnoreCase(Actions.STOP_WATCH_POSITION)) {
-            stopWatchPosition(result);
-        } else if (call.method.equalsIgnoreCase(Actions.GET_LOCATIONS)) {
-            getLocations(result);
-        } else if (call.method.equalsIgnoreCase(Actions.INSERT_LOCATION)) {
-            insertLocation((Map) call.arguments, result);
-        } else if (call.method.equalsIgnoreCase(Actions.GET_COUNT)) {
-            getCount(result);
-        } else if (call.method.equalsIgnoreCase(Actions.DESTROY_LOCATIONS)) {
-            destroyLocations(result);
-        } else if (call.method.equalsIgnoreCase(Actions.DESTROY_LOCATION)) {
-            destroyLocation((String) call.arguments, result);
-        } else if (call.method.equalsIgnoreCase(Actions.SYNC)) {
-            sync(result);
-        } else if (call.method.equalsIgnoreCase(Actions.GET_ODOMETER)) {
-            getOdometer(result);
-        } else if (call.method.equalsIgnoreCase(Actions.SET_ODOMETER)) {
-            setOdometer((Double) call.arguments, result);
-        } else if (call.method.equalsIgnoreCase(Actions.ADD_GEOFENCE)) {
-            addGeofence((Map) call.arguments, result);
-        } else if (call.method.equalsIgnoreCase(Actions.ADD_GEOFENCES)) {
-            addGeofences((List) call.arguments, result);
-        } else if (call.method.equalsIgnoreCase(Actions.REMOVE_GEOFENCE)) {
-            removeGeofence((String) call.arguments, result);
-        } else if (call.method.equalsIgnoreCase(Actions.REMOVE_GEOFENCES)) {
-            removeGeofences(result);
-        } else if (call.method.equalsIgnoreCase(Actions.GET_GEOFENCES)) {
-            getGeofences(result);
-        } else if (call.method.equalsIgnoreCase(Actions.GET_GEOFENCE)) {
-            getGeofence((String) call.arguments, result);
-        } else if (call.method.equalsIgnoreCase(Actions.GEOFENCE_EXISTS)) {
-            geofenceExists((String) call.arguments, result);
-        } else if (call.method.equalsIgnoreCase(TSLog.ACTION_LOG)) {
-            log((List) call.arguments, result);
-        } else if (call.method.equalsIgnoreCase(TSLog.ACTION_GET_LOG)) {
-            getLog((Map) call.arguments, result);
-        } else if (call.method.equalsIgnoreCase(TSLog.ACTION_EMAIL_LOG)) {
-            emailLog((List) call.arguments, result);
-        } else if (call.method.equalsIgnoreCase(TSLog.ACTION_UPLOAD_LOG)) {
-            uploadLog((List) call.arguments, result);
-        } else if (call.method.equalsIgnoreCase(Actions.DESTROY_LOG)) {
-            destroyLog(result);
-        } else if (call.method.equalsIgnoreCase(ACTION_LOG)) {
-            Map<String, String> args = (Map) call.arguments;
-            log(args.get("level"), args.get("message"), result);
-        } else if (call.method.equalsIgnoreCase(Actions.GET_SENSORS)) {
-            getSensors(result);
-        } else if (call.method.equalsIgnoreCase(Actions.IS_POWER_SAVE_MODE)) {
-            isPowerSaveMode(result);
-        } else if (call.method.equalsIgnoreCase(Actions.IS_IGNORING_BATTERY_OPTIMIZATIONS)) {
-            isIgnoringBatteryOptimizations(result);
-        } else if (call.method.equalsIgnoreCase(ACTION_REQUEST_SETTINGS)) {
-            requestSettings((List) call.arguments, result);
-        } else if (call.method.equalsIgnoreCase(ACTION_SHOW_SETTINGS)) {
-            showSettings((List) call.arguments, result);
-        } else if (call.method.equalsIgnoreCase(DeviceInfo.ACTION_GET_DEVICE_INFO)) {
-            getDeviceInfo(result);
-        } else if (call.method.equalsIgnoreCase(Actions.PLAY_SOUND)) {
-            playSound((String) call.arguments, result);
-        } else if (call.method.equalsIgnoreCase(ACTION_REGISTER_HEADLESS_TASK)) {
-            registerHeadlessTask((List<Object>) call.arguments, result);
-        } else if (call.method.equalsIgnoreCase(Actions.GET_PROVIDER_STATE)) {
-            getProviderState(result);
-        } else if (call.method.equalsIgnoreCase(Actions.REQUEST_PERMISSION)) {
-            requestPermission((String) call.arguments, result);
-        } else if (call.method.equalsIgnoreCase(ACTION_REQUEST_TEMPORARY_FULL_ACCURACY)) {
-            requestTemporaryFullAccuracy((String) call.arguments, result);
-        } else if (call.method.equalsIgnoreCase(ACTION_REGISTER_PLUGIN)) {
-            // No implementation; iOS only.
-            result.success(true);
-        } else if (call.method.equalsIgnoreCase(TransistorAuthorizationToken.ACTION_GET)) {
-            getTransistorToken((List) call.arguments, result);
-        } else if (call.method.equalsIgnoreCase(TransistorAuthorizationToken.ACTION_DESTROY)) {
-            destroyTransistorToken((String) call.arguments, result);
+    public void onMethodCall(@NonNull MethodCall call, @NonNull MethodChannel.Result reply) {
+        dispatch(call, reply);
+    }
+
+    private void dispatch(@NonNull MethodCall call, @NonNull MethodChannel.Result reply) {
+        Action action = mActions.get(call.method.toLowerCase(Locale.US));
+        if (action == null) {
+            // Unknown methods share a single counter:  metrics keyed by a caller-supplied name would grow without bound.
+            PluginMetrics.recordNotImplemented();
+            reply.notImplemented();
+            return;
+        }
+        MethodChannel.Result result = PluginMetrics.instrument(action.method, reply);
+        if (action.policy == ThreadPolicy.BACKGROUND) {
+            invokeInBackground(action, call, result);
+        } else {
+            action.invoke(call, result);
+        }
+    }
+
+    private static void invokeInBackground(final Action action, final MethodCall call, final MethodChannel.Result result) {
+        final MethodChannel.Result mainThreadResult = new MainThreadResult(result);
+        BackgroundGeolocation.getThreadPool().execute(new Runnable() {
+            @Override public void run() {
+                // Unlike the platform-thread, an exception here would not be replied to Dart:  it would crash the app.
+                try {
+                    action.invoke(call, mainThreadResult);
+                } catch (RuntimeException e) {
+                    Log.d(BackgroundGeolocation.TAG, "[" + call.method + "] " + e);
+                    PluginMetrics.recordException(action.method);
+                    mainThreadResult.error("error", e.getMessage(), null);
+                }
+            }
+        });
+    }
+
+    /**
+     * Execute heavy work (eg: conversion of a large result-set) off the main-thread.  SDK callbacks are typically
+     * executed upon the main-thread.
+     */
+    private static void runInBackground(Runnable task) {
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            BackgroundGeolocation.getThreadPool().execute(task);
         } else {
-            result.notImplemented();
+            task.run();
+        }
+    }
+
+    /**
+     * Replies to a method-call upon the main-thread, regardless of the thread the reply is made from.
+     */
+    private static class MainThreadResult implements MethodChannel.Result {
+        private final MethodChannel.Result mResult;
+
+        MainThreadResult(MethodChannel.Result result) {
+            mResult = result;
+        }
+
+        @Override public void success(@Nullable final Object value) {
+            post(new Runnable() {
+                @Override public void run() { mResult.success(value); }
+            });
+        }
+
+        @Override public void error(@NonNull final String errorCode, @Nullable final String errorMessage, @Nullable final Object errorDetails) {
+            post(new Runnable() {
+                @Override public void run() { mResult.error(errorCode, errorMessage, errorDetails); }
+            });
+        }
+
+        @Override public void notImplemented() {
+            post(new Runnable() {
+                @Override public void run() { mResult.notImplemented(); }
+            });
+        }
+
+        private static void post(Runnable task) {
+            if (Looper.myLooper() == Looper.getMainLooper()) {
+                task.run();
+            } else {
+                BackgroundGeolocation.getUiHandler().post(task);
+            }
         }
     }
 
@@ -362,8 +737,29 @@ public class BackgroundGeolocationModule  implements MethodChannel.MethodCallHan
         }
     }
 
-    private void getState(MethodChannel.Result result) {
-        resultWithState(result);
+    /**
+     * Reply with the cached state.  When the caller provides the {version} of the state it already holds, reply
+     * {stateVersion, notModified: true} if unchanged, otherwise {stateVersion, state}.
+     */
+    private void getState(Object args, MethodChannel.Result result) {
+        Map<String, Object> state;
+        long version;
+        synchronized (this) {
+            state = getStateSnapshot();
+            version = mStateVersion;
+        }
+        if (!(args instanceof Map) || !(((Map) args).get("version") instanceof Number)) {
+            result.success(state);
+            return;
+        }
+        Map<String, Object> response = new HashMap<>();
+        response.put("stateVersion", version);
+        if (((Number) ((Map) args).get("version")).longValue() == version) {
+            response.put("notModified", true);
+        } else {
+            response.put("state", state);
+        }
+        result.success(response);
     }
 
     @SuppressWarnings("unchecked")
@@ -424,6 +820,27 @@ public class BackgroundGeolocationModule  implements MethodChannel.MethodCallHan
         resultWithState(result);
     }
 
+    /**
+     * Apply only the keys of config which differ from the current config, replying with the changed keys.
+     */
+    private void patchConfig(Map<String, Object> config, MethodChannel.Result result) {
+        if (config == null) {
+            result.error("patchConfig requires a config Map", null, null);
+            return;
+        }
+        Map<String, Object> current;
+        synchronized (this) {
+            current = getStateSnapshot();
+        }
+        Map<String, Object> changed = ConfigDiff.diff(current, config);
+        if (!changed.isEmpty()) {
+            // applyConfig decorates the Map it's provided.
+            if (!applyConfig(new HashMap<>(changed), result)) return;
+            invalidateState();
+        }
+        result.success(changed);
+    }
+
     @SuppressWarnings("unchecked")
     private void reset(Object args, MethodChannel.Result result) {
         TSConfig config = TSConfig.getInstance(mContext);
@@ -475,6 +892,7 @@ public class BackgroundGeolocationModule  implements MethodChannel.MethodCallHan
         final boolean isMoving = (boolean) call.arguments;
         BackgroundGeolocation.getInstance(mContext).changePace(isMoving, new TSCallback() {
             @Override public void onSuccess() {
+                invalidateState();
                 result.success(isMoving);
             }
             @Override public void onFailure(String error) {
@@ -563,18 +981,149 @@ public class BackgroundGeolocationModule  implements MethodChannel.MethodCallHan
         });
     }
 
-    private void getLocations(final MethodChannel.Result result) {
-        BackgroundGeolocation.getInstance(mContext).getLocations(new TSGetLocationsCallback() {
-            @Override public void onSuccess(List<LocationModel> records) {
-                JSONArray rs = new JSONArray();
-                for (LocationModel location : records) {
-                    rs.put(location.json);
+    private void getLocations(Object args, final MethodChannel.Result result) {
+        if (LocationRecords.isJsonFormat(args)) {
+            Object query = ((Map) args).get("query");
+            if (query instanceof Map) {
+                queryLocations((Map) query, new LocationQueryCallback() {
+                    @Override public void onSuccess(List<LocationRecords.Record> records) {
+                        result.success(LocationRecords.toJsonBytes(LocationRecords.toJSONArray(records)));
+                    }
+                    @Override public void onFailure(String error) { result.error(error, null, null); }
+                });
+            } else {
+                getLocationsJson(result);
+            }
+            return;
+        }
+        if (LocationRecords.isColumnsFormat(args)) {
+            Object query = ((Map) args).get("query");
+            queryLocations((query instanceof Map) ? (Map) query : new HashMap(), new LocationQueryCallback() {
+                @Override public void onSuccess(List<LocationRecords.Record> records) {
+                    result.success(LocationRecords.toColumns(records));
                 }
-                try {
-                    result.success(toList(rs));
-                } catch (JSONException e) {
-                    result.error(e.getMessage(), null, null);
+                @Override public void onFailure(String error) { result.error(error, null, null); }
+            });
+            return;
+        }
+        if ((args instanceof Map) && (((Map) args).get("query") instanceof Map)) {
+            queryLocations((Map) ((Map) args).get("query"), new LocationQueryCallback() {
+                @Override public void onSuccess(List<LocationRecords.Record> records) {
+                    try {
+                        result.success(toList(LocationRecords.toJSONArray(records)));
+                    } catch (JSONException e) {
+                        result.error(e.getMessage(), null, null);
+                    }
                 }
+                @Override public void onFailure(String error) { result.error(error, null, null); }
+            });
+            return;
+        }
+        if (args instanceof Map) {
+            getLocationsPage((Map) args, result);
+            return;
+        }
+        BackgroundGeolocation.getInstance(mContext).getLocations(new TSGetLocationsCallback() {
+            @Override public void onSuccess(final List<LocationModel> records) {
+                runInBackground(new Runnable() {
+                    @Override public void run() {
+                        JSONArray rs = new JSONArray();
+                        for (LocationModel location : records) {
+                            rs.put(location.json);
+                        }
+                        try {
+                            result.success(toList(rs));
+                        } catch (JSONException e) {
+                            result.error(e.getMessage(), null, null);
+                        }
+                    }
+                });
+            }
+            @Override public void onFailure(Integer error) { result.error(error.toString(), null, null); }
+        });
+    }
+
+    private interface LocationQueryCallback {
+        void onSuccess(List<LocationRecords.Record> records);
+        void onFailure(String error);
+    }
+
+    /**
+     * Evaluate a LocationRecords.Query {start, end, limit, order, bounds} upon the persisted locations, off the
+     * main-thread.
+     */
+    private void queryLocations(Map params, final LocationQueryCallback callback) {
+        final LocationRecords.Query query;
+        try {
+            query = LocationRecords.Query.fromMap(params);
+        } catch (IllegalArgumentException e) {
+            callback.onFailure(e.getMessage());
+            return;
+        }
+        BackgroundGeolocation.getInstance(mContext).getLocations(new TSGetLocationsCallback() {
+            @Override public void onSuccess(final List<LocationModel> records) {
+                runInBackground(new Runnable() {
+                    @Override public void run() {
+                        callback.onSuccess(LocationRecords.query(LocationRecords.toRecords(records), query));
+                    }
+                });
+            }
+            @Override public void onFailure(Integer error) { callback.onFailure(error.toString()); }
+        });
+    }
+
+    /**
+     * Reply with all locations as a single UTF-8 JSON byte[], skipping the conversion to Java collections.
+     */
+    private void getLocationsJson(final MethodChannel.Result result) {
+        BackgroundGeolocation.getInstance(mContext).getLocations(new TSGetLocationsCallback() {
+            @Override public void onSuccess(final List<LocationModel> records) {
+                runInBackground(new Runnable() {
+                    @Override public void run() {
+                        result.success(LocationRecords.toJsonBytes(records));
+                    }
+                });
+            }
+            @Override public void onFailure(Integer error) { result.error(error.toString(), null, null); }
+        });
+    }
+
+    /**
+     * Reply with one page of locations {locations, cursor} ordered by (timestamp, uuid).  Provide the returned cursor
+     * to fetch the following page;  cursor is null for the last page.  Only the requested page is converted to Java
+     * collections and sent to Dart.
+     *
+     * The SDK provides no paged query:  each call still loads every record (and parses its timestamp) to select the
+     * page, ie: O(N) time and native memory per page, O(N^2 / limit) to page through the whole database.
+     */
+    private void getLocationsPage(Map args, final MethodChannel.Result result) {
+        final int limit = (args.get("limit") instanceof Number) ? ((Number) args.get("limit")).intValue() : DEFAULT_PAGE_LIMIT;
+        final String cursor = (args.get("cursor") instanceof String) ? (String) args.get("cursor") : null;
+        final int order = (args.get("order") instanceof Number) ? ((Number) args.get("order")).intValue() : SQLQuery.ORDER_ASC;
+        if (limit <= 0) {
+            result.error("Invalid limit: " + limit, null, null);
+            return;
+        }
+        if ((order != SQLQuery.ORDER_ASC) && (order != SQLQuery.ORDER_DESC)) {
+            result.error("Invalid order: " + order, null, null);
+            return;
+        }
+
+        BackgroundGeolocation.getInstance(mContext).getLocations(new TSGetLocationsCallback() {
+            @Override public void onSuccess(final List<LocationModel> records) {
+                runInBackground(new Runnable() {
+                    @Override public void run() {
+                        try {
+                            LocationRecords.Page page = LocationRecords.page(LocationRecords.toRecords(records), limit, cursor, order);
+                            Map<String, Object> response = new HashMap<>();
+                            response.put("locations", toList(page.records));
+                            response.put("cursor", page.cursor);
+                            result.success(response);
+                        } catch (IllegalArgumentException | JSONException e) {
+                            result.error(e.getMessage(), null, null);
+                        }
+                    }
+                });
             }
             @Override public void onFailure(Integer error) { result.error(error.toString(), null, null); }
         });
@@ -595,20 +1144,176 @@ public class BackgroundGeolocationModule  implements MethodChannel.MethodCallHan
         });
     }
 
-    private void getCount(final MethodChannel.Result result) {
+    /**
+     * Insert a List of location records sequentially, replying with their uuids in the same order.  Every record is
+     * converted before any is inserted, so a malformed record inserts nothing.  This is not a transaction:  an insert
+     * failure stops at that record and replies with the error and details {index (of the failed record), uuids (of the
+     * records already inserted, which remain)}.
+     */
+    @SuppressWarnings("unchecked")
+    private void insertLocations(List<Object> params, final MethodChannel.Result result) {
+        final List<JSONObject> records = new ArrayList<>(params.size());
+        try {
+            for (Object record : params) {
+                if (!(record instanceof Map)) {
+                    result.error("Invalid location record: " + record, null, null);
+                    return;
+                }
+                records.add(mapToJson((Map<String, Object>) record));
+            }
+        } catch (JSONException e) {
+            result.error(e.getMessage(), null, null);
+            return;
+        }
+        if (records.isEmpty()) {
+            result.success(new ArrayList<String>());
+            return;
+        }
+        // The SDK has no bulk insert:  records are inserted one at a time, in order, stopping at the first failure.
+        final List<String> uuids = new ArrayList<>(records.size());
+        final BackgroundGeolocation adapter = BackgroundGeolocation.getInstance(mContext);
+        adapter.insertLocation(records.get(0), new TSInsertLocationCallback() {
+            private int mIndex = 0;
+            @Override public void onSuccess(String uuid) {
+                uuids.add(uuid);
+                if (++mIndex < records.size()) {
+                    adapter.insertLocation(records.get(mIndex), this);
+                } else {
+                    result.success(uuids);
+                }
+            }
+            @Override public void onFailure(String error) {
+                Map<String, Object> details = new HashMap<>();
+                details.put("index", mIndex);
+                details.put("uuids", uuids);
+                result.error(error, null, details);
+            }
+        });
+    }
+
+    /**
+     * Reply with a summary row {start, end, count, distance, movingTime, stops, maxSpeed} per time-bucket ("hour" /
+     * "day") of the locations matching the optional query.
+     */
+    private void aggregateLocations(Map args, final MethodChannel.Result result) {
+        final String bucket = (args.get("bucket") instanceof String) ? (String) args.get("bucket") : LocationAggregator.BUCKET_DAY;
+        // Aggregation is computed in ascending order.
+        Map query = (args.get("query") instanceof Map) ? new HashMap((Map) args.get("query")) : new HashMap();
+        query.put("order", SQLQuery.ORDER_ASC);
+        queryLocations(query, new LocationQueryCallback() {
+            @Override public void onSuccess(List<LocationRecords.Record> records) {
+                try {
+                    result.success(LocationAggregator.aggregate(records, bucket));
+                } catch (IllegalArgumentException e) {
+                    result.error(e.getMessage(), null, null);
+                }
+            }
+            @Override public void onFailure(String error) { result.error(error, null, null); }
+        });
+    }
+
+    private void getCount(Object args, final MethodChannel.Result result) {
+        if ((args instanceof Map) && (((Map) args).get("query") instanceof Map)) {
+            final MethodChannel.Result reply = new MainThreadResult(result);
+            queryLocations((Map) ((Map) args).get("query"), new LocationQueryCallback() {
+                @Override public void onSuccess(List<LocationRecords.Record> records) { reply.success(records.size()); }
+                @Override public void onFailure(String error) { reply.error(error, null, null); }
+            });
+            return;
+        }
         BackgroundGeolocation.getInstance(mContext).getCount(new TSGetCountCallback() {
             @Override public void onSuccess(Integer count) { result.success(count); }
             @Override public void onFailure(String error) { result.error(error, null, null); }
         });
     }
 
-    private void destroyLocations(final MethodChannel.Result result) {
+    /**
+     * Destroy all records;  or with {uuids} and / or {query}, only the records with the given uuids and / or matching
+     * the LocationRecords.Query.
+     */
+    private void destroyLocations(Object args, final MethodChannel.Result result) {
+        Set<String> uuids = null;
+        if ((args instanceof Map) && (((Map) args).get("uuids") instanceof List)) {
+            uuids = new HashSet<>();
+            for (Object uuid : (List) ((Map) args).get("uuids")) {
+                if (!(uuid instanceof String)) {
+                    result.error("Invalid uuid: " + uuid, null, null);
+                    return;
+                }
+                uuids.add((String) uuid);
+            }
+        }
+        final Set<String> only = uuids;
+        if ((only != null) && !(((Map) args).get("query") instanceof Map)) {
+            destroyLocationsByUuid(new ArrayList<>(only), result);
+            return;
+        }
+        if ((args instanceof Map) && (((Map) args).get("query") instanceof Map)) {
+            // Simplification selects the records to keep, not to destroy.
+            Map query = new HashMap((Map) ((Map) args).get("query"));
+            query.remove("simplify");
+            queryLocations(query, new LocationQueryCallback() {
+                @Override public void onSuccess(List<LocationRecords.Record> records) {
+                    List<String> uuids = new ArrayList<>(records.size());
+                    for (LocationRecords.Record record : records) {
+                        if ((only == null) || only.contains(record.uuid)) {
+                            uuids.add(record.uuid);
+                        }
+                    }
+                    destroyLocationsByUuid(uuids, result);
+                }
+                @Override public void onFailure(String error) { new MainThreadResult(result).error(error, null, null); }
+            });
+            return;
+        }
         BackgroundGeolocation.getInstance(mContext).destroyLocations(new TSCallback() {
             @Override public void onSuccess() { result.success(true); }
             @Override public void onFailure(String error) { result.error(error, null, null); }
         });
     }
 
+    /**
+     * Destroy the given records, replying once all have completed:  true, or the first error with details {destroyed,
+     * failed} (uuids).  The SDK has no bulk delete, so this is not a transaction:  the destroyed records remain
+     * destroyed when another fails.
+     */
+    private void destroyLocationsByUuid(final List<String> uuids, MethodChannel.Result result) {
+        final MethodChannel.Result reply = new MainThreadResult(result);
+        if (uuids.isEmpty()) {
+            reply.success(true);
+            return;
+        }
+        final AtomicInteger remaining = new AtomicInteger(uuids.size());
+        final AtomicReference<String> failure = new AtomicReference<>();
+        final List<String> destroyed = Collections.synchronizedList(new ArrayList<String>());
+        final List<String> failed = Collections.synchronizedList(new ArrayList<String>());
+        BackgroundGeolocation adapter = BackgroundGeolocation.getInstance(mContext);
+        for (final String uuid : uuids) {
+            adapter.destroyLocation(uuid, new TSCallback() {
+                @Override public void onSuccess() {
+                    destroyed.add(uuid);
+                    onComplete();
+                }
+                @Override public void onFailure(String error) {
+                    failure.compareAndSet(null, error);
+                    failed.add(uuid);
+                    onComplete();
+                }
+                private void onComplete() {
+                    if (remaining.decrementAndGet() > 0) return;
+                    if (failure.get() != null) {
+                        Map<String, Object> details = new HashMap<>();
+                        details.put("destroyed", new ArrayList<>(destroyed));
+                        details.put("failed", new ArrayList<>(failed));
+                        reply.error(failure.get(), null, details);
+                    } else {
+                        reply.success(true);
+                    }
+                }
+            });
+        }
+    }
+
     private void destroyLocation(final String uuid, final MethodChannel.Result result) {
         BackgroundGeolocation.getInstance(mContext).destroyLocation(uuid, new TSCallback() {
             @Override public void onSuccess() {
@@ -620,18 +1325,47 @@ public class BackgroundGeolocationModule  implements MethodChannel.MethodCallHan
         });
     }
 
-    private void sync(final MethodChannel.Result result) {
+    private void sync(Object args, final MethodChannel.Result result) {
+        final boolean asJson = LocationRecords.isJsonFormat(args);
+        final double simplify = ((args instanceof Map) && (((Map) args).get("simplify") instanceof Number))
+                ? ((Number) ((Map) args).get("simplify")).doubleValue()
+                : 0;
+        // {echo: false}:  don't return the synced records.
+        final boolean echo = !((args instanceof Map) && Boolean.FALSE.equals(((Map) args).get("echo")));
         BackgroundGeolocation.getInstance(mContext).sync(new TSSyncCallback() {
-            @Override public void onSuccess(List<LocationModel> records) {
-                try {
-                    JSONArray rs = new JSONArray();
-                    for (LocationModel location : records) {
-                        rs.put(location.json);
-                    }
-                    result.success(toList(rs));
-                } catch (JSONException e) {
-                    result.error(e.getMessage(), null, null);
+            @Override public void onSuccess(final List<LocationModel> records) {
+                if (!echo) {
+                    result.success(asJson ? LocationRecords.toJsonBytes(new JSONArray()) : new ArrayList<>());
+                    return;
                 }
+                runInBackground(new Runnable() {
+                    @Override public void run() {
+                        if (simplify > 0) {
+                            LocationRecords.Query query = new LocationRecords.Query();
+                            query.simplify = simplify;
+                            JSONArray rs = LocationRecords.toJSONArray(LocationRecords.query(LocationRecords.toRecords(records), query));
+                            try {
+                                result.success(asJson ? LocationRecords.toJsonBytes(rs) : toList(rs));
+                            } catch (JSONException e) {
+                                result.error(e.getMessage(), null, null);
+                            }
+                            return;
+                        }
+                        if (asJson) {
+                            result.success(LocationRecords.toJsonBytes(records));
+                            return;
+                        }
+                        try {
+                            JSONArray rs = new JSONArray();
+                            for (LocationModel location : records) {
+                                rs.put(location.json);
+                            }
+                            result.success(toList(rs));
+                        } catch (JSONException e) {
+                            result.error(e.getMessage(), null, null);
+                        }
+                    }
+                });
             }
             @Override public void onFailure(String error) { result.error(error, null, null); }
         });
@@ -644,6 +1378,7 @@ public class BackgroundGeolocationModule  implements MethodChannel.MethodCallHan
     private void setOdometer(@NonNull Double odometer, final MethodChannel.Result result) {
         BackgroundGeolocation.getInstance(mContext).setOdometer(odometer, new TSLocationCallback() {
             @Override public void onLocation(LocationEvent event) {
+                invalidateState();
                 result.success(event.toMap());
             }
             @Override public void onError(Integer errorCode) {
@@ -684,6 +1419,54 @@ public class BackgroundGeolocationModule  implements MethodChannel.MethodCallHan
         });
     }
 
+    /**
+     * {geofences, partial: true}:  add the valid geofences of the list in a single SDK call, reporting invalid ones
+     * rather than failing the whole call.  Replies with {added, errors: [{index, identifier, error}]}.
+     */
+    @SuppressWarnings("unchecked")
+    private void addGeofencesPartial(@NonNull Map args, final MethodChannel.Result result) {
+        List<?> data = (args.get("geofences") instanceof List)
+                ? (List<?>) args.get("geofences")
+                : new ArrayList<>();
+        final List<TSGeofence> geofences = new ArrayList<>();
+        final List<Map<String, Object>> errors = new ArrayList<>();
+        for (int n=0;n<data.size();n++) {
+            Object item = data.get(n);
+            // Any failure to build one geofence (eg: not a Map, a value of the wrong type) is reported in its own slot.
+            try {
+                if (!(item instanceof Map)) {
+                    throw new IllegalArgumentException("Invalid geofence: " + item);
+                }
+                geofences.add(buildGeofence((Map<String, Object>) item));
+            } catch (Exception e) {
+                Map<String, Object> error = new HashMap<>();
+                error.put("index", n);
+                error.put("identifier", (item instanceof Map) ? ((Map) item).get("identifier") : null);
+                error.put("error", (e.getMessage() != null) ? e.getMessage() : e.toString());
+                errors.add(error);
+            }
+        }
+        if (geofences.isEmpty()) {
+            result.success(addGeofencesResponse(0, errors));
+            return;
+        }
+        BackgroundGeolocation.getInstance(mContext).addGeofences(geofences, new TSCallback() {
+            @Override public void onSuccess() {
+                result.success(addGeofencesResponse(geofences.size(), errors));
+            }
+            @Override public void onFailure(String error) {
+                result.error(error, null, addGeofencesResponse(0, errors));
+            }
+        });
+    }
+
+    private static Map<String, Object> addGeofencesResponse(int added, List<Map<String, Object>> errors) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("added", added);
+        response.put("errors", errors);
+        return response;
+    }
+
     private void removeGeofence(String identifier, final MethodChannel.Result result) {
         BackgroundGeolocation.getInstance(mContext).removeGeofence(identifier, new TSCallback() {
             @Override public void onSuccess() { result.success(true);
@@ -702,17 +1485,21 @@ public class BackgroundGeolocationModule  implements MethodChannel.MethodCallHan
 
     private void getGeofences(final MethodChannel.Result result) {
         BackgroundGeolocation.getInstance(mContext).getGeofences(new TSGetGeofencesCallback() {
-            @Override public void onSuccess(List<TSGeofence> geofences) {
-                try {
-                    List<Map<String, Object>> rs = new ArrayList<>();
-                    for (TSGeofence geofence : geofences) {
-                        rs.add(geofenceToMap(geofence));
+            @Override public void onSuccess(final List<TSGeofence> geofences) {
+                runInBackground(new Runnable() {
+                    @Override public void run() {
+                        try {
+                            List<Map<String, Object>> rs = new ArrayList<>();
+                            for (TSGeofence geofence : geofences) {
+                                rs.add(geofenceToMap(geofence));
+                            }
+                            result.success(rs);
+                        } catch (JSONException e) {
+                            e.printStackTrace();
+                            result.error(e.getMessage(), null, null);
+                        }
                     }
-                    result.success(rs);
-                } catch (JSONException e) {
-                    e.printStackTrace();
-                    result.error(e.getMessage(), null, null);
-                }
+                });
             }
             @Override public void onFailure(String error) { result.error(error, null, null); }
         });
@@ -968,6 +1755,101 @@ public class BackgroundGeolocationModule  implements MethodChannel.MethodCallHan
         });
     }
 
+    private void getPluginMetrics(Map args, @NonNull MethodChannel.Result result) {
+        Map<String, Object> metrics = PluginMetrics.toMap();
+        if ((args != null) && Boolean.TRUE.equals(args.get("reset"))) {
+            PluginMetrics.reset();
+        }
+        result.success(metrics);
+    }
+
+    private void setPluginMetricsLogInterval(Number interval, @NonNull MethodChannel.Result result) {
+        PluginMetrics.setLogInterval((interval != null) ? interval.longValue() : 0);
+        result.success(true);
+    }
+
+    /**
+     * Execute an ordered List of method-calls {method, args}, replying once with the List of their results.  Each call
+     * is dispatched after the previous one has replied, through the same dispatch-table (and thread-policy) as an
+     * individual method-call.  Each result is either {method, result} or {method, error: {code, message, details}}.
+     */
+    private void batch(final List<Map<String, Object>> calls, final MethodChannel.Result result) {
+        if (calls == null) {
+            result.error("batch requires a List of {method, args}", null, null);
+            return;
+        }
+        new BatchRunner(calls, result).next();
+    }
+
+    private class BatchRunner {
+        private final List<?> mCalls;
+        private final MethodChannel.Result mResult;
+        private final List<Object> mResults = new ArrayList<>();
+
+        BatchRunner(List<?> calls, MethodChannel.Result result) {
+            mCalls = calls;
+            mResult = result;
+        }
+
+        void next() {
+            if (mResults.size() == mCalls.size()) {
+                mResult.success(mResults);
+                return;
+            }
+            Object entry = mCalls.get(mResults.size());
+            Object name = (entry instanceof Map) ? ((Map) entry).get("method") : null;
+            final String method = (name instanceof String) ? (String) name : null;
+            if ((method == null) || method.equalsIgnoreCase(ACTION_BATCH)) {
+                complete(method, null, errorToMap("Invalid batch method: " + method, null, null));
+                return;
+            }
+            final AtomicBoolean replied = new AtomicBoolean(false);
+            MethodChannel.Result reply = new MethodChannel.Result() {
+                @Override public void success(@Nullable Object value) {
+                    if (replied.compareAndSet(false, true)) complete(method, value, null);
+                }
+                @Override public void error(@NonNull String errorCode, @Nullable String errorMessage, @Nullable Object errorDetails) {
+                    if (replied.compareAndSet(false, true)) complete(method, null, errorToMap(errorCode, errorMessage, errorDetails));
+                }
+                @Override public void notImplemented() {
+                    if (replied.compareAndSet(false, true)) complete(method, null, errorToMap("notImplemented", method, null));
+                }
+            };
+            try {
+                dispatch(new MethodCall(method, ((Map) entry).get("args")), reply);
+            } catch (RuntimeException e) {
+                // Only a registered action throws:  see #dispatch.
+                Action action = mActions.get(method.toLowerCase(Locale.US));
+                if (action != null) PluginMetrics.recordException(action.method);
+                reply.error("error", e.getMessage(), null);
+            }
+        }
+
+        private void complete(String method, Object value, Map<String, Object> error) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("method", method);
+            if (error != null) {
+                response.put("error", error);
+            } else {
+                response.put("result", value);
+            }
+            mResults.add(response);
+            // Calls may reply from any thread:  dispatch the next upon the main-thread, as for a channel method-call,
+            // rather than recursing within the previous call's reply.
+            BackgroundGeolocation.getUiHandler().post(new Runnable() {
+                @Override public void run() { next(); }
+            });
+        }
+
+        private Map<String, Object> errorToMap(String code, String message, Object details) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("code", code);
+            error.put("message", message);
+            error.put("details", details);
+            return error;
+        }
+    }
+
     private void playSound(String name, @NonNull MethodChannel.Result result) {
         BackgroundGeolocation.getInstance(mContext).startTone(name);
         result.success(true);
@@ -1017,7 +1899,7 @@ public class BackgroundGeolocationModule  implements MethodChannel.MethodCallHan
     }
 
     @NonNull
-    private static Map<String, Object> toMap(@NonNull JSONObject object) throws JSONException {
+    public static Map<String, Object> toMap(@NonNull JSONObject object) throws JSONException {
         Map<String, Object> map = new HashMap<>();
 
         Iterator<String> keysItr = object.keys();
@@ -1038,7 +1920,7 @@ public class BackgroundGeolocationModule  implements MethodChannel.MethodCallHan
     }
 
     @NonNull
-    private static List<Object> toList(@NonNull JSONArray array) throws JSONException {
+    public static List<Object> toList(@NonNull JSONArray array) throws JSONException {
         List<Object> list = new ArrayList<>();
         for(int i = 0; i < array.length(); i++) {
             Object value = array.get(i);
@@ -1072,8 +1954,61 @@ public class BackgroundGeolocationModule  implements MethodChannel.MethodCallHan
         return true;
     }
 
+    /**
+     * Reply with the state following a plugin-initiated change of state (eg: start, stop, setConfig).
+     */
     private void resultWithState(@NonNull MethodChannel.Result result) {
-        result.success(TSConfig.getInstance(mContext).toMap(false));
+        Map<String, Object> state;
+        synchronized (this) {
+            invalidateState();
+            state = getStateSnapshot();
+        }
+        result.success(state);
+    }
+
+    /**
+     * Return the cached state, rebuilding it only when invalidated.  The snapshot is shared by every caller (and encoded
+     * on the platform-thread) so it's read-only:  copy it to make changes.
+     */
+    private synchronized Map<String, Object> getStateSnapshot() {
+        if (mStateDirty || (mState == null)) {
+            mState = unmodifiable(TSConfig.getInstance(mContext).toMap(false));
+            mStateDirty = false;
+        }
+        return mState;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> unmodifiable(Map<String, Object> map) {
+        Map<String, Object> result = new HashMap<>(map.size());
+        for (Map.Entry<String, Object> entry : map.entrySet()) {
+            result.put(entry.getKey(), unmodifiable(entry.getValue()));
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object unmodifiable(Object value) {
+        if (value instanceof Map) {
+            return unmodifiable((Map<String, Object>) value);
+        } else if (value instanceof List) {
+            List<Object> result = new ArrayList<>(((List) value).size());
+            for (Object item : (List) value) {
+                result.add(unmodifiable(item));
+            }
+            return Collections.unmodifiableList(result);
+        }
+        return value;
+    }
+
+    /**
+     * The state has changed:  rebuild the cached state upon next request, with a new version.
+     */
+    private synchronized void invalidateState() {
+        if (!mStateDirty) {
+            mStateDirty = true;
+            mStateVersion++;
+        }
     }
 
     @Override
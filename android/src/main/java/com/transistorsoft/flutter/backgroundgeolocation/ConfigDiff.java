@@ -0,0 +1,100 @@
+package com.transistorsoft.flutter.backgroundgeolocation;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Computes the subset of an incoming config which differs from the current config, so that only changed keys are
+ * applied to TSConfig.
+ *
+ * The incoming config may provide keys within the compound groups (eg: geolocation.distanceFilter) and / or as legacy
+ * flat keys (eg: distanceFilter);  each is compared against the same key of the current config, in either form.
+ * Numbers are compared by value (eg: 10 == 10.0).  Values other than the compound groups (eg: notification, extras)
+ * are compared as a whole.
+ */
+class ConfigDiff {
+    private static final String[] GROUPS = {"geolocation", "app", "http", "activity", "persistence", "logger"};
+
+    /**
+     * Return the keys of incoming whose values differ from current, preserving the incoming structure.
+     */
+    @SuppressWarnings("unchecked")
+    static Map<String, Object> diff(Map<String, Object> current, Map<String, Object> incoming) {
+        Map<String, Object> changed = new HashMap<>();
+        for (Map.Entry<String, Object> entry : incoming.entrySet()) {
+            String key = entry.getKey();
+            Object value = entry.getValue();
+
+            if (isGroup(key) && (value instanceof Map)) {
+                Object currentGroup = current.get(key);
+                Map<String, Object> group = new HashMap<>();
+                for (Map.Entry<String, Object> item : ((Map<String, Object>) value).entrySet()) {
+                    Object currentValue = (currentGroup instanceof Map) && ((Map) currentGroup).containsKey(item.getKey())
+                            ? ((Map) currentGroup).get(item.getKey())
+                            : find(current, item.getKey());
+                    if (!isEqual(currentValue, item.getValue())) {
+                        group.put(item.getKey(), item.getValue());
+                    }
+                }
+                if (!group.isEmpty()) {
+                    changed.put(key, group);
+                }
+            } else if (!isEqual(find(current, key), value)) {
+                changed.put(key, value);
+            }
+        }
+        return changed;
+    }
+
+    private static boolean isGroup(String key) {
+        for (String group : GROUPS) {
+            if (group.equals(key)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Find a key in the current config, either as a flat key or within one of the compound groups.
+     */
+    private static Object find(Map<String, Object> config, String key) {
+        if (config.containsKey(key)) return config.get(key);
+        for (String group : GROUPS) {
+            Object values = config.get(group);
+            if ((values instanceof Map) && ((Map) values).containsKey(key)) {
+                return ((Map) values).get(key);
+            }
+        }
+        return null;
+    }
+
+    private static boolean isEqual(Object a, Object b) {
+        if (a == b) return true;
+        if ((a == null) || (b == null)) return false;
+        if ((a instanceof Number) && (b instanceof Number)) {
+            return ((Number) a).doubleValue() == ((Number) b).doubleValue();
+        }
+        if ((a instanceof Map) && (b instanceof Map)) {
+            Map ma = (Map) a;
+            Map mb = (Map) b;
+            if (ma.size() != mb.size()) return false;
+            for (Object key : ma.keySet()) {
+                if (!mb.containsKey(key) || !isEqual(ma.get(key), mb.get(key))) return false;
+            }
+            return true;
+        }
+        if ((a instanceof List) && (b instanceof List)) {
+            List la = (List) a;
+            List lb = (List) b;
+            if (la.size() != lb.size()) return false;
+            Iterator ia = la.iterator();
+            Iterator ib = lb.iterator();
+            while (ia.hasNext()) {
+                if (!isEqual(ia.next(), ib.next())) return false;
+            }
+            return true;
+        }
+        return a.equals(b);
+    }
+}
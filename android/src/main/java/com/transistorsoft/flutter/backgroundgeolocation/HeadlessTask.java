@@ -87,6 +87,7 @@ public class HeadlessTask implements MethodChannel.MethodCallHandler, Runnable {
         Log.d(BackgroundGeolocation.TAG, "\uD83D\uDC80 [HeadlessTask " + eventName + "]");
         synchronized (mEvents) {
             mEvents.add(event);
+            PluginMetrics.recordHeadlessEventReceived(mEvents.size());
         }
 
         BackgroundGeolocation.getThreadPool().execute(new TaskRunner(event));
@@ -122,6 +123,7 @@ public class HeadlessTask implements MethodChannel.MethodCallHandler, Runnable {
                     e.printStackTrace();
                 }
             }
+            PluginMetrics.recordHeadlessEventsDispatched(mEvents.size());
             mEvents.clear();
         }
     }
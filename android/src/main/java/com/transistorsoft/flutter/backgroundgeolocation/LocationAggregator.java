@@ -0,0 +1,128 @@
+package com.transistorsoft.flutter.backgroundgeolocation;
+
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+
+/**
+ * Summarizes location records per time bucket (hour or day, in the device's time zone) in a single pass:  count,
+ * distance, moving time, stop count and max speed.
+ *
+ * Each segment between consecutive records is attributed to the bucket of its later record:  its great-circle distance
+ * counts toward distance, its duration counts toward moving time when both records are moving, and a transition from
+ * moving to stationary counts as a stop.
+ */
+class LocationAggregator {
+    static final String BUCKET_HOUR = "hour";
+    static final String BUCKET_DAY  = "day";
+
+    private static final double EARTH_RADIUS = 6371008.8;
+
+    private static class Bucket {
+        final long start;
+        final long end;
+        int count = 0;
+        double distance = 0;
+        long movingTime = 0;
+        int stops = 0;
+        double maxSpeed = -1;
+
+        Bucket(long start, long end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> data = new LinkedHashMap<>();
+            data.put("start", start);
+            data.put("end", end);
+            data.put("count", count);
+            data.put("distance", distance);
+            data.put("movingTime", movingTime);
+            data.put("stops", stops);
+            data.put("maxSpeed", maxSpeed);
+            return data;
+        }
+    }
+
+    /**
+     * Aggregate the records, which must be ordered by ascending timestamp.  Returns one row per non-empty bucket, in
+     * order.
+     *
+     * @throws IllegalArgumentException for an unknown bucket.
+     */
+    static List<Map<String, Object>> aggregate(List<LocationRecords.Record> records, String bucket) {
+        int field;
+        if (BUCKET_HOUR.equals(bucket)) {
+            field = Calendar.HOUR_OF_DAY;
+        } else if (BUCKET_DAY.equals(bucket)) {
+            field = Calendar.DAY_OF_MONTH;
+        } else {
+            throw new IllegalArgumentException("Invalid bucket: " + bucket);
+        }
+        Calendar calendar = Calendar.getInstance(TimeZone.getDefault());
+        List<Map<String, Object>> rows = new ArrayList<>();
+
+        Bucket current = null;
+        JSONObject previous = null;
+        long previousTimestamp = 0;
+        for (LocationRecords.Record record : records) {
+            if ((current == null) || (record.timestamp >= current.end) || (record.timestamp < current.start)) {
+                if (current != null) rows.add(current.toMap());
+                current = bucketOf(calendar, record.timestamp, field);
+            }
+            current.count++;
+
+            JSONObject coords = record.json.optJSONObject("coords");
+            if (coords != null) {
+                double speed = coords.optDouble("speed", -1);
+                if (speed > current.maxSpeed) current.maxSpeed = speed;
+            }
+            if (previous != null) {
+                JSONObject previousCoords = previous.optJSONObject("coords");
+                if ((coords != null) && (previousCoords != null)) {
+                    double distance = haversine(previousCoords.optDouble("latitude", Double.NaN), previousCoords.optDouble("longitude", Double.NaN),
+                            coords.optDouble("latitude", Double.NaN), coords.optDouble("longitude", Double.NaN));
+                    if (!Double.isNaN(distance)) current.distance += distance;
+                }
+                boolean wasMoving = previous.optBoolean("is_moving", false);
+                boolean isMoving = record.json.optBoolean("is_moving", false);
+                if (wasMoving && isMoving) {
+                    current.movingTime += Math.max(0, record.timestamp - previousTimestamp);
+                } else if (wasMoving) {
+                    current.stops++;
+                }
+            }
+            previous = record.json;
+            previousTimestamp = record.timestamp;
+        }
+        if (current != null) rows.add(current.toMap());
+        return rows;
+    }
+
+    private static Bucket bucketOf(Calendar calendar, long timestamp, int field) {
+        calendar.setTimeInMillis(timestamp);
+        if (field == Calendar.DAY_OF_MONTH) {
+            calendar.set(Calendar.HOUR_OF_DAY, 0);
+        }
+        calendar.set(Calendar.MINUTE, 0);
+        calendar.set(Calendar.SECOND, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+        long start = calendar.getTimeInMillis();
+        calendar.add(field, 1);
+        return new Bucket(start, calendar.getTimeInMillis());
+    }
+
+    static double haversine(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = (Math.sin(dLat / 2) * Math.sin(dLat / 2))
+                + (Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLng / 2) * Math.sin(dLng / 2));
+        return 2 * EARTH_RADIUS * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+}
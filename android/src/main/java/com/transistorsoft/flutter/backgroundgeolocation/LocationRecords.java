@@ -0,0 +1,303 @@
+package com.transistorsoft.flutter.backgroundgeolocation;
+
+import com.transistorsoft.locationmanager.data.LocationModel;
+import com.transistorsoft.locationmanager.data.SQLQuery;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TimeZone;
+
+/**
+ * Plugin-side operations upon the persisted location records returned by the SDK, eg: cursor-based paging.
+ */
+public class LocationRecords {
+
+    /** Return records as a single UTF-8 encoded JSON Array (byte[]) rather than as a List of Maps. */
+    static final String FORMAT_JSON = "json";
+
+    /** Return records as primitive columns (double[] / long[] / float[]), transferred to Dart as typed-data. */
+    static final String FORMAT_COLUMNS = "columns";
+
+    private static final ThreadLocal<SimpleDateFormat> sIsoFormat = new ThreadLocal<SimpleDateFormat>() {
+        @Override protected SimpleDateFormat initialValue() {
+            SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", Locale.US);
+            format.setTimeZone(TimeZone.getTimeZone("UTC"));
+            return format;
+        }
+    };
+
+    /**
+     * Epoch milliseconds of a location timestamp, which is either an ISO-8601 UTC String or an epoch Number
+     * (PersistenceConfig.timestampFormat "epoch").  Returns null for an unrecognized value.
+     */
+    public static Long toEpochMillis(Object timestamp) {
+        if (timestamp instanceof Number) {
+            return ((Number) timestamp).longValue();
+        } else if (timestamp instanceof String) {
+            try {
+                Date date = sIsoFormat.get().parse((String) timestamp);
+                return (date != null) ? date.getTime() : null;
+            } catch (ParseException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * A location record with its sort-key:  (timestamp, uuid).
+     */
+    static class Record {
+        final JSONObject json;
+        final long timestamp;
+        final String uuid;
+
+        Record(JSONObject json) {
+            Long epoch = toEpochMillis(json.opt("timestamp"));
+            this.json = json;
+            this.timestamp = (epoch != null) ? epoch : 0;
+            this.uuid = json.optString("uuid", "");
+        }
+
+        String getCursor() {
+            return timestamp + ":" + uuid;
+        }
+    }
+
+    private static final Comparator<Record> ASCENDING = new Comparator<Record>() {
+        @Override public int compare(Record a, Record b) {
+            if (a.timestamp != b.timestamp) return (a.timestamp < b.timestamp) ? -1 : 1;
+            return a.uuid.compareTo(b.uuid);
+        }
+    };
+
+    private static final Comparator<Record> DESCENDING = Collections.reverseOrder(ASCENDING);
+
+    /**
+     * One page of records and the cursor of its last record.  cursor is null when there are no further records.
+     */
+    static class Page {
+        final JSONArray records = new JSONArray();
+        String cursor;
+    }
+
+    /**
+     * Serialize the records directly to a UTF-8 JSON Array, without converting each record to Java collections for
+     * the platform-channel codec.  Dart receives the bytes as a Uint8List.
+     */
+    static byte[] toJsonBytes(List<LocationModel> models) {
+        StringBuilder json = new StringBuilder(Math.max(16, models.size() * 512));
+        json.append('[');
+        for (int n = 0; n < models.size(); n++) {
+            if (n > 0) json.append(',');
+            json.append(models.get(n).json.toString());
+        }
+        json.append(']');
+        return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    static byte[] toJsonBytes(JSONArray records) {
+        return records.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    static boolean isJsonFormat(Object args) {
+        return (args instanceof Map) && FORMAT_JSON.equals(((Map) args).get("format"));
+    }
+
+    static boolean isColumnsFormat(Object args) {
+        return (args instanceof Map) && FORMAT_COLUMNS.equals(((Map) args).get("format"));
+    }
+
+    /**
+     * Pack the records into primitive columns {latitude, longitude (double[]), timestamp (long[]), accuracy, speed
+     * (float[])}, one element per record.  Missing values are NaN (0 for timestamp).
+     */
+    static Map<String, Object> toColumns(List<Record> records) {
+        int count = records.size();
+        double[] latitude = new double[count];
+        double[] longitude = new double[count];
+        long[] timestamp = new long[count];
+        float[] accuracy = new float[count];
+        float[] speed = new float[count];
+        for (int n = 0; n < count; n++) {
+            Record record = records.get(n);
+            JSONObject coords = record.json.optJSONObject("coords");
+            timestamp[n] = record.timestamp;
+            if (coords != null) {
+                latitude[n] = coords.optDouble("latitude", Double.NaN);
+                longitude[n] = coords.optDouble("longitude", Double.NaN);
+                accuracy[n] = (float) coords.optDouble("accuracy", Double.NaN);
+                speed[n] = (float) coords.optDouble("speed", Double.NaN);
+            } else {
+                latitude[n] = longitude[n] = Double.NaN;
+                accuracy[n] = speed[n] = Float.NaN;
+            }
+        }
+        Map<String, Object> columns = new HashMap<>();
+        columns.put("latitude", latitude);
+        columns.put("longitude", longitude);
+        columns.put("timestamp", timestamp);
+        columns.put("accuracy", accuracy);
+        columns.put("speed", speed);
+        return columns;
+    }
+
+    /**
+     * A query upon the location records, evaluated plugin-side:  time-range [start, end] (epoch ms, inclusive), an
+     * optional lat / lng bounding-box, order (SQLQuery.ORDER_ASC / ORDER_DESC), limit and an optional
+     * simplification tolerance in meters (see TrajectorySimplifier).
+     */
+    static class Query {
+        Long start;
+        Long end;
+        int limit = -1;
+        int order = SQLQuery.ORDER_ASC;
+        double[] bounds;  // {minLatitude, minLongitude, maxLatitude, maxLongitude}
+        double simplify = 0;
+
+        static Query fromMap(Map params) {
+            Query query = new Query();
+            if (params.get("start") instanceof Number) query.start = ((Number) params.get("start")).longValue();
+            if (params.get("end") instanceof Number) query.end = ((Number) params.get("end")).longValue();
+            if (params.get("limit") instanceof Number) query.limit = ((Number) params.get("limit")).intValue();
+            if (params.get("order") instanceof Number) query.order = ((Number) params.get("order")).intValue();
+            if (params.get("simplify") instanceof Number) query.simplify = ((Number) params.get("simplify")).doubleValue();
+            if (params.get("bounds") instanceof Map) {
+                Map bounds = (Map) params.get("bounds");
+                String[] keys = {"minLatitude", "minLongitude", "maxLatitude", "maxLongitude"};
+                query.bounds = new double[keys.length];
+                for (int n = 0; n < keys.length; n++) {
+                    if (!(bounds.get(keys[n]) instanceof Number)) {
+                        throw new IllegalArgumentException("Invalid bounds: " + keys[n] + " is required");
+                    }
+                    query.bounds[n] = ((Number) bounds.get(keys[n])).doubleValue();
+                }
+            }
+            return query;
+        }
+
+        boolean matches(Record record) {
+            if ((start != null) && (record.timestamp < start)) return false;
+            if ((end != null) && (record.timestamp > end)) return false;
+            if (bounds != null) {
+                JSONObject coords = record.json.optJSONObject("coords");
+                if (coords == null) return false;
+                double latitude = coords.optDouble("latitude", Double.NaN);
+                double longitude = coords.optDouble("longitude", Double.NaN);
+                if (Double.isNaN(latitude) || Double.isNaN(longitude)) return false;
+                if ((latitude < bounds[0]) || (latitude > bounds[2])) return false;
+                // A box crossing the anti-meridian has minLongitude > maxLongitude.
+                if (bounds[1] <= bounds[3]) {
+                    if ((longitude < bounds[1]) || (longitude > bounds[3])) return false;
+                } else if ((longitude < bounds[1]) && (longitude > bounds[3])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Return the records matching the query, sorted by (timestamp, uuid) in the query's order, simplified and limited.
+     */
+    static List<Record> query(List<Record> records, Query query) {
+        List<Record> selected = new ArrayList<>();
+        for (Record record : records) {
+            if (query.matches(record)) selected.add(record);
+        }
+        Collections.sort(selected, ASCENDING);
+        if (query.simplify > 0) {
+            selected = TrajectorySimplifier.simplify(selected, query.simplify);
+        }
+        if (query.order == SQLQuery.ORDER_DESC) {
+            Collections.reverse(selected);
+        }
+        if ((query.limit >= 0) && (query.limit < selected.size())) {
+            selected = new ArrayList<>(selected.subList(0, query.limit));
+        }
+        return selected;
+    }
+
+    static JSONArray toJSONArray(List<Record> records) {
+        JSONArray array = new JSONArray();
+        for (Record record : records) {
+            array.put(record.json);
+        }
+        return array;
+    }
+
+    static List<Record> toRecords(List<LocationModel> models) {
+        List<Record> records = new ArrayList<>(models.size());
+        for (LocationModel model : models) {
+            records.add(new Record(model.json));
+        }
+        return records;
+    }
+
+    /**
+     * Return up to limit records following the given cursor ("timestamp:uuid" of the last record of the previous page;
+     * null for the first page), ordered by (timestamp, uuid) in the given order (SQLQuery.ORDER_ASC / ORDER_DESC).
+     * Every record is still visited:  O(N log limit).
+     *
+     * @throws IllegalArgumentException for a limit <= 0, an unknown order or a malformed cursor.
+     */
+    static Page page(List<Record> records, int limit, String cursor, int order) {
+        if (limit <= 0) throw new IllegalArgumentException("Invalid limit: " + limit);
+        if ((order != SQLQuery.ORDER_ASC) && (order != SQLQuery.ORDER_DESC)) throw new IllegalArgumentException("Invalid order: " + order);
+        Comparator<Record> comparator = (order == SQLQuery.ORDER_DESC) ? DESCENDING : ASCENDING;
+
+        Record after = null;
+        if (cursor != null) {
+            int separator = cursor.indexOf(':');
+            if (separator < 1) throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            try {
+                JSONObject key = new JSONObject();
+                key.put("timestamp", Long.parseLong(cursor.substring(0, separator)));
+                key.put("uuid", cursor.substring(separator + 1));
+                after = new Record(key);
+            } catch (Exception e) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+        }
+
+        // Retain only the first limit + 1 records following the cursor (the extra one tells whether a further page
+        // exists) in a bounded heap whose head is the last of them, rather than sorting every record.
+        int capacity = limit + 1;
+        Comparator<Record> reversed = Collections.reverseOrder(comparator);
+        PriorityQueue<Record> heap = new PriorityQueue<>(Math.min(capacity, records.size() + 1), reversed);
+        for (Record record : records) {
+            if ((after != null) && (comparator.compare(record, after) <= 0)) continue;
+            if (heap.size() < capacity) {
+                heap.add(record);
+            } else if (comparator.compare(record, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(record);
+            }
+        }
+        List<Record> selected = new ArrayList<>(heap);
+        Collections.sort(selected, comparator);
+
+        Page page = new Page();
+        int count = Math.min(limit, selected.size());
+        for (int n = 0; n < count; n++) {
+            page.records.put(selected.get(n).json);
+        }
+        if ((count > 0) && (count < selected.size())) {
+            page.cursor = selected.get(count - 1).getCursor();
+        }
+        return page;
+    }
+}
@@ -0,0 +1,299 @@
+package com.transistorsoft.flutter.backgroundgeolocation;
+
+import android.os.SystemClock;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.transistorsoft.locationmanager.adapter.BackgroundGeolocation;
+import com.transistorsoft.locationmanager.logger.TSLog;
+
+import org.json.JSONObject;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import io.flutter.plugin.common.MethodChannel;
+
+/**
+ * Cheap, always-on instrumentation of the plugin layer:  method-call latency, event-stream throughput and delivery
+ * (serialization) time, and the headless-event queue.  Recording is lock-free (atomic counters and log2 latency
+ * histograms) so it can remain enabled in production.
+ *
+ * Exposed to Dart via the "getPluginMetrics" method and optionally written to the log periodically.
+ */
+public class PluginMetrics {
+    private static final String LOG_LEVEL = "info";
+
+    /**
+     * Latency histogram with power-of-two microsecond buckets:  bucket n counts samples in [2^n, 2^(n+1)) us.
+     */
+    public static class Histogram {
+        private static final int BUCKETS = 32;
+
+        private final AtomicLongArray mBuckets = new AtomicLongArray(BUCKETS);
+        private final AtomicLong mCount = new AtomicLong(0);
+        private final AtomicLong mSum = new AtomicLong(0);
+        private final AtomicLong mMax = new AtomicLong(0);
+
+        public void record(long nanos) {
+            long micros = Math.max(0, nanos / 1000);
+            int bucket = (micros == 0) ? 0 : Math.min(BUCKETS - 1, 63 - Long.numberOfLeadingZeros(micros));
+            mBuckets.incrementAndGet(bucket);
+            mCount.incrementAndGet();
+            mSum.addAndGet(micros);
+            long max;
+            do {
+                max = mMax.get();
+            } while ((micros > max) && !mMax.compareAndSet(max, micros));
+        }
+
+        long getCount() {
+            return mCount.get();
+        }
+
+        void reset() {
+            for (int n = 0; n < BUCKETS; n++) {
+                mBuckets.set(n, 0);
+            }
+            mCount.set(0);
+            mSum.set(0);
+            mMax.set(0);
+        }
+
+        /**
+         * Upper-bound of the bucket containing the given percentile, in microseconds.
+         */
+        private long percentile(double p) {
+            long count = mCount.get();
+            if (count == 0) return 0;
+            long target = (long) Math.ceil(count * p);
+            long seen = 0;
+            for (int n = 0; n < BUCKETS; n++) {
+                seen += mBuckets.get(n);
+                if (seen >= target) return 1L << (n + 1);
+            }
+            return mMax.get();
+        }
+
+        Map<String, Object> toMap() {
+            long count = mCount.get();
+            Map<String, Object> data = new HashMap<>();
+            data.put("count", count);
+            data.put("meanUs", (count > 0) ? mSum.get() / count : 0);
+            data.put("maxUs", mMax.get());
+            data.put("p50Us", percentile(0.50));
+            data.put("p95Us", percentile(0.95));
+            data.put("p99Us", percentile(0.99));
+            return data;
+        }
+    }
+
+    /**
+     * Throughput and delivery metrics of an event-stream.
+     */
+    public static class StreamMetrics {
+        private final AtomicLong mEmitted = new AtomicLong(0);
+        private final AtomicLong mDropped = new AtomicLong(0);
+        private final AtomicLong mCoalesced = new AtomicLong(0);
+        private final Histogram mDelivery = new Histogram();
+        private volatile long mSince = SystemClock.elapsedRealtime();
+
+        /** An event was handed to the stream's queue. */
+        public void recordEmitted() { mEmitted.incrementAndGet(); }
+        /** An event was discarded by the stream's queue. */
+        public void recordDropped() { mDropped.incrementAndGet(); }
+        /** An event was replaced by a newer one in the stream's queue. */
+        public void recordCoalesced() { mCoalesced.incrementAndGet(); }
+        /** Time taken to encode and post an event to the EventSink. */
+        public void recordDelivery(long nanos) { mDelivery.record(nanos); }
+
+        Map<String, Object> toMap() {
+            long elapsed = Math.max(1, SystemClock.elapsedRealtime() - mSince);
+            Map<String, Object> data = new HashMap<>();
+            data.put("emitted", mEmitted.get());
+            data.put("delivered", mDelivery.getCount());
+            data.put("dropped", mDropped.get());
+            data.put("coalesced", mCoalesced.get());
+            data.put("eventsPerSecond", mDelivery.getCount() * 1000.0 / elapsed);
+            data.put("delivery", mDelivery.toMap());
+            return data;
+        }
+
+        void reset() {
+            mEmitted.set(0);
+            mDropped.set(0);
+            mCoalesced.set(0);
+            mDelivery.reset();
+            mSince = SystemClock.elapsedRealtime();
+        }
+    }
+
+    private static final ConcurrentHashMap<String, Histogram> sMethods = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, AtomicLong> sMethodErrors = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, AtomicLong> sMethodExceptions = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, StreamMetrics> sStreams = new ConcurrentHashMap<>();
+    private static final AtomicLong sNotImplemented = new AtomicLong(0);
+
+    private static final AtomicLong sHeadlessReceived = new AtomicLong(0);
+    private static final AtomicLong sHeadlessDispatched = new AtomicLong(0);
+    private static final AtomicLong sHeadlessDepth = new AtomicLong(0);
+    private static final AtomicLong sHeadlessMaxDepth = new AtomicLong(0);
+
+    private static volatile long sSince = SystemClock.elapsedRealtime();
+    private static volatile long sLogInterval = 0;
+
+    private static final Runnable sLogTask = new Runnable() {
+        @Override public void run() {
+            TSLog.log(LOG_LEVEL, "[PluginMetrics] " + new JSONObject(toMap()).toString());
+            if (sLogInterval > 0) {
+                BackgroundGeolocation.getUiHandler().postDelayed(this, sLogInterval);
+            }
+        }
+    };
+
+    /**
+     * Wrap a MethodChannel.Result to record the latency of a method-call, from receipt until its reply.  method must be
+     * the name of a registered method (not the caller-supplied name) so that the number of histograms is bounded.
+     */
+    static MethodChannel.Result instrument(final String method, final MethodChannel.Result result) {
+        final long start = SystemClock.elapsedRealtimeNanos();
+        return new MethodChannel.Result() {
+            @Override public void success(@Nullable Object value) {
+                record(method, start, false);
+                result.success(value);
+            }
+            @Override public void error(@NonNull String errorCode, @Nullable String errorMessage, @Nullable Object errorDetails) {
+                record(method, start, true);
+                result.error(errorCode, errorMessage, errorDetails);
+            }
+            @Override public void notImplemented() {
+                result.notImplemented();
+            }
+        };
+    }
+
+    private static void record(String method, long start, boolean isError) {
+        Histogram histogram = sMethods.get(method);
+        if (histogram == null) {
+            sMethods.putIfAbsent(method, new Histogram());
+            histogram = sMethods.get(method);
+        }
+        histogram.record(SystemClock.elapsedRealtimeNanos() - start);
+
+        if (isError) {
+            increment(sMethodErrors, method);
+        }
+    }
+
+    /**
+     * A method-call for an unknown method.
+     */
+    static void recordNotImplemented() {
+        sNotImplemented.incrementAndGet();
+    }
+
+    /**
+     * A method-call threw an exception, which was replied to Dart as an error.
+     */
+    static void recordException(String method) {
+        increment(sMethodExceptions, method);
+    }
+
+    private static void increment(ConcurrentHashMap<String, AtomicLong> counters, String key) {
+        AtomicLong counter = counters.get(key);
+        if (counter == null) {
+            counters.putIfAbsent(key, new AtomicLong(0));
+            counter = counters.get(key);
+        }
+        counter.incrementAndGet();
+    }
+
+    /**
+     * The metrics of an event-stream, shared by all stream-handlers of that event.
+     */
+    public static StreamMetrics forStream(String event) {
+        StreamMetrics metrics = sStreams.get(event);
+        if (metrics == null) {
+            sStreams.putIfAbsent(event, new StreamMetrics());
+            metrics = sStreams.get(event);
+        }
+        return metrics;
+    }
+
+    static void recordHeadlessEventReceived(int depth) {
+        sHeadlessReceived.incrementAndGet();
+        setHeadlessDepth(depth);
+    }
+
+    static void recordHeadlessEventsDispatched(int count) {
+        sHeadlessDispatched.addAndGet(count);
+        setHeadlessDepth(0);
+    }
+
+    private static void setHeadlessDepth(long depth) {
+        sHeadlessDepth.set(depth);
+        long max;
+        do {
+            max = sHeadlessMaxDepth.get();
+        } while ((depth > max) && !sHeadlessMaxDepth.compareAndSet(max, depth));
+    }
+
+    static Map<String, Object> toMap() {
+        Map<String, Object> methods = new HashMap<>();
+        for (Map.Entry<String, Histogram> entry : sMethods.entrySet()) {
+            Map<String, Object> data = entry.getValue().toMap();
+            AtomicLong errors = sMethodErrors.get(entry.getKey());
+            data.put("errors", (errors != null) ? errors.get() : 0L);
+            AtomicLong exceptions = sMethodExceptions.get(entry.getKey());
+            data.put("exceptions", (exceptions != null) ? exceptions.get() : 0L);
+            methods.put(entry.getKey(), data);
+        }
+        Map<String, Object> streams = new HashMap<>();
+        for (Map.Entry<String, StreamMetrics> entry : sStreams.entrySet()) {
+            streams.put(entry.getKey(), entry.getValue().toMap());
+        }
+        Map<String, Object> headless = new HashMap<>();
+        headless.put("received", sHeadlessReceived.get());
+        headless.put("dispatched", sHeadlessDispatched.get());
+        headless.put("queueDepth", sHeadlessDepth.get());
+        headless.put("maxQueueDepth", sHeadlessMaxDepth.get());
+
+        Map<String, Object> data = new HashMap<>();
+        data.put("durationMs", SystemClock.elapsedRealtime() - sSince);
+        data.put("methods", methods);
+        data.put("notImplemented", sNotImplemented.get());
+        data.put("streams", streams);
+        data.put("headless", headless);
+        return data;
+    }
+
+    static void reset() {
+        sMethods.clear();
+        sMethodErrors.clear();
+        sMethodExceptions.clear();
+        sNotImplemented.set(0);
+        // Stream-handlers hold a reference to their StreamMetrics:  reset in place.
+        for (StreamMetrics metrics : sStreams.values()) {
+            metrics.reset();
+        }
+        sHeadlessReceived.set(0);
+        sHeadlessDispatched.set(0);
+        sHeadlessMaxDepth.set(sHeadlessDepth.get());
+        sSince = SystemClock.elapsedRealtime();
+    }
+
+    /**
+     * Periodically write the metrics to the log.  An interval <= 0 disables.
+     */
+    static void setLogInterval(long interval) {
+        sLogInterval = interval;
+        BackgroundGeolocation.getUiHandler().removeCallbacks(sLogTask);
+        if (interval > 0) {
+            BackgroundGeolocation.getUiHandler().postDelayed(sLogTask, interval);
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.transistorsoft.flutter.backgroundgeolocation;
+
+import org.json.JSONObject;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Trajectory simplification with a tolerance in meters:  Douglas-Peucker for a complete track and an opening-window
+ * variant for a live stream of locations.  A point is discarded when it lies within tolerance of the line joining the
+ * retained points around it.
+ *
+ * Distances are measured with an equirectangular projection about the start of each segment, which is accurate to well
+ * below typical tolerances over the lengths of GPS segments.
+ */
+public class TrajectorySimplifier {
+    private static final double EARTH_RADIUS = 6371008.8;
+
+    /**
+     * Douglas-Peucker:  returns, for each point, whether it's retained.  The first and last points and any point
+     * without coordinates (NaN) are always retained.
+     */
+    public static boolean[] simplify(double[] latitude, double[] longitude, double tolerance) {
+        int count = latitude.length;
+        boolean[] keep = new boolean[count];
+        if ((count <= 2) || !(tolerance > 0)) {
+            for (int n = 0; n < count; n++) keep[n] = true;
+            return keep;
+        }
+        for (int n = 0; n < count; n++) {
+            keep[n] = Double.isNaN(latitude[n]) || Double.isNaN(longitude[n]);
+        }
+        keep[0] = keep[count - 1] = true;
+
+        // Iterative rather than recursive:  tracks may contain tens of thousands of points.
+        ArrayDeque<int[]> segments = new ArrayDeque<>();
+        segments.push(new int[] {0, count - 1});
+        while (!segments.isEmpty()) {
+            int[] segment = segments.pop();
+            int first = segment[0];
+            int last = segment[1];
+            double max = tolerance;
+            int index = -1;
+            for (int n = first + 1; n < last; n++) {
+                double distance = distanceToSegment(latitude[n], longitude[n], latitude[first], longitude[first], latitude[last], longitude[last]);
+                if (distance > max) {
+                    max = distance;
+                    index = n;
+                }
+            }
+            if (index > 0) {
+                keep[index] = true;
+                segments.push(new int[] {first, index});
+                segments.push(new int[] {index, last});
+            }
+        }
+        return keep;
+    }
+
+    /**
+     * Simplify a list of location records, which must be ordered by timestamp.
+     */
+    static List<LocationRecords.Record> simplify(List<LocationRecords.Record> records, double tolerance) {
+        int count = records.size();
+        double[] latitude = new double[count];
+        double[] longitude = new double[count];
+        for (int n = 0; n < count; n++) {
+            JSONObject coords = records.get(n).json.optJSONObject("coords");
+            latitude[n] = (coords != null) ? coords.optDouble("latitude", Double.NaN) : Double.NaN;
+            longitude[n] = (coords != null) ? coords.optDouble("longitude", Double.NaN) : Double.NaN;
+        }
+        boolean[] keep = simplify(latitude, longitude, tolerance);
+        List<LocationRecords.Record> simplified = new ArrayList<>();
+        for (int n = 0; n < count; n++) {
+            if (keep[n]) simplified.add(records.get(n));
+        }
+        return simplified;
+    }
+
+    /**
+     * Perpendicular distance in meters of point p from the segment a-b (or from a / b beyond its ends).
+     */
+    static double distanceToSegment(double lat, double lng, double latA, double lngA, double latB, double lngB) {
+        double scale = Math.cos(Math.toRadians(latA));
+        double x = longitudeDelta(lng, lngA) * scale;
+        double y = lat - latA;
+        double bx = longitudeDelta(lngB, lngA) * scale;
+        double by = latB - latA;
+
+        double length = (bx * bx) + (by * by);
+        double t = (length > 0) ? Math.max(0, Math.min(1, ((x * bx) + (y * by)) / length)) : 0;
+        double dx = x - (t * bx);
+        double dy = y - (t * by);
+        return Math.toRadians(Math.sqrt((dx * dx) + (dy * dy))) * EARTH_RADIUS;
+    }
+
+    private static double longitudeDelta(double lng, double origin) {
+        double delta = lng - origin;
+        if (delta > 180) delta -= 360;
+        if (delta < -180) delta += 360;
+        return delta;
+    }
+
+    /**
+     * Opening-window simplification of a live stream of points.  Each offered point is held until a following point
+     * shows whether it's required:  when the line from the last retained point (the anchor) to the newest point passes
+     * further than tolerance from any point since the anchor, the held point is retained and becomes the new anchor.
+     * The first point is retained immediately.
+     *
+     * The window is limited to maxSize points, after which the held point is retained regardless.  Use #flush to
+     * retain the held point (eg: when no further points arrive for some time).
+     */
+    public static class Window {
+        private final double mTolerance;
+        private final int mMaxSize;
+        private final List<double[]> mPoints = new ArrayList<>();
+        private double[] mAnchor;
+        private Object mHeld;
+
+        public Window(double tolerance, int maxSize) {
+            mTolerance = tolerance;
+            mMaxSize = Math.max(1, maxSize);
+        }
+
+        /**
+         * Offer a point with its payload.  Returns the payload of a point retained as a result, or null.
+         */
+        public synchronized Object offer(double latitude, double longitude, Object payload) {
+            double[] point = {latitude, longitude};
+            if (mAnchor == null) {
+                mAnchor = point;
+                return payload;
+            }
+            Object retained = null;
+            if (mHeld != null) {
+                for (double[] p : mPoints) {
+                    if (distanceToSegment(p[0], p[1], mAnchor[0], mAnchor[1], latitude, longitude) > mTolerance) {
+                        retained = mHeld;
+                        mAnchor = mPoints.get(mPoints.size() - 1);
+                        mPoints.clear();
+                        break;
+                    }
+                }
+            }
+            mPoints.add(point);
+            mHeld = payload;
+            if ((retained == null) && (mPoints.size() >= mMaxSize)) {
+                return flush();
+            }
+            return retained;
+        }
+
+        /**
+         * Whether a point is held, awaiting the next to determine whether it's retained.
+         */
+        public synchronized boolean isHolding() {
+            return mHeld != null;
+        }
+
+        /**
+         * Retain the held point, if any, returning its payload.
+         */
+        public synchronized Object flush() {
+            Object held = mHeld;
+            if (held != null) {
+                mAnchor = mPoints.get(mPoints.size() - 1);
+                mPoints.clear();
+                mHeld = null;
+            }
+            return held;
+        }
+    }
+}
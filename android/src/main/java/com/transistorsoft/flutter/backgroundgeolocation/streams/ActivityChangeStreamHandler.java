@@ -21,6 +21,6 @@ public class ActivityChangeStreamHandler extends StreamHandler implements TSActi
 
     @Override
     public void onActivityChange(ActivityChangeEvent event) {
-        mEventSink.success(event.toMap());
+        send(event.toMap());
     }
 }
\ No newline at end of file
@@ -20,6 +20,6 @@ public class AuthorizationStreamHandler extends StreamHandler implements TSAutho
 
     @Override
     public void onResponse(AuthorizationEvent response) {
-        mEventSink.success(response.toMap());
+        send(response.toMap());
     }
 }
\ No newline at end of file
@@ -1,10 +1,17 @@
 package com.transistorsoft.flutter.backgroundgeolocation.streams;
 
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.NetworkInfo;
+
 import com.transistorsoft.locationmanager.adapter.BackgroundGeolocation;
 import com.transistorsoft.locationmanager.adapter.callback.TSConnectivityChangeCallback;
 import com.transistorsoft.locationmanager.event.ConnectivityChangeEvent;
 import com.transistorsoft.locationmanager.event.EventName;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import io.flutter.plugin.common.EventChannel;
 
 public class ConnectivityChangeStreamHandler extends StreamHandler implements TSConnectivityChangeCallback {
@@ -19,6 +26,25 @@ public class ConnectivityChangeStreamHandler extends StreamHandler implements TS
     }
     @Override
     public void onConnectivityChange(ConnectivityChangeEvent event) {
-        mEventSink.success(event.toMap());
+        send(event.toMap());
+    }
+
+    @Override
+    boolean isStateStream() {
+        return true;
+    }
+
+    // The SDK has no synchronous accessor for connectivity:  read it from the ConnectivityManager, in the shape of
+    // ConnectivityChangeEvent#toMap.
+    @Override
+    Object getCurrentState() {
+        ConnectivityManager manager = (ConnectivityManager) mContext.getSystemService(Context.CONNECTIVITY_SERVICE);
+        if (manager == null) {
+            return null;
+        }
+        NetworkInfo network = manager.getActiveNetworkInfo();
+        Map<String, Object> state = new HashMap<>();
+        state.put("connected", (network != null) && network.isConnected());
+        return state;
     }
 }
@@ -3,6 +3,7 @@ package com.transistorsoft.flutter.backgroundgeolocation.streams;
 import com.transistorsoft.locationmanager.adapter.BackgroundGeolocation;
 import com.transistorsoft.locationmanager.adapter.callback.TSEnabledChangeCallback;
 import com.transistorsoft.locationmanager.event.EventName;
+import com.transistorsoft.locationmanager.config.TSConfig;
 
 import io.flutter.plugin.common.EventChannel;
 
@@ -19,6 +20,16 @@ public class EnabledChangeStreamHandler extends StreamHandler implements TSEnabl
 
     @Override
     public void onEnabledChange(boolean enabled) {
-        mEventSink.success(enabled);
+        send(enabled);
     }
-}
\ No newline at end of file
+
+    @Override
+    boolean isStateStream() {
+        return true;
+    }
+
+    @Override
+    Object getCurrentState() {
+        return TSConfig.getInstance(mContext).getEnabled();
+    }
+}
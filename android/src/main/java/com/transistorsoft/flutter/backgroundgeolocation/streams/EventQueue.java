@@ -0,0 +1,225 @@
+package com.transistorsoft.flutter.backgroundgeolocation.streams;
+
+import android.os.Looper;
+import android.os.SystemClock;
+
+import com.transistorsoft.flutter.backgroundgeolocation.PluginMetrics;
+import com.transistorsoft.locationmanager.adapter.BackgroundGeolocation;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.flutter.plugin.common.EventChannel;
+
+/**
+ * Bounded hand-off queue between SDK callbacks and a Flutter {@link EventChannel.EventSink}.
+ * Events are drained on the main-thread in small slices so that a burst of events (eg: a geofence storm)
+ * cannot monopolize the platform-thread;  when the queue is full, the configured {@link Overflow} policy
+ * decides which event is sacrificed.
+ */
+class EventQueue implements Runnable {
+    static final int DEFAULT_CAPACITY = 256;
+    // Maximum number of events delivered per main-thread message before yielding.
+    private static final int DRAIN_SLICE = 16;
+
+    enum Overflow {
+        DROP_OLDEST,
+        DROP_NEWEST,
+        COALESCE_LATEST;
+
+        static Overflow fromString(String value) {
+            if ("drop-newest".equalsIgnoreCase(value)) return DROP_NEWEST;
+            if ("coalesce-latest".equalsIgnoreCase(value)) return COALESCE_LATEST;
+            return DROP_OLDEST;
+        }
+    }
+
+    // Queued in place of an event to deliver EventSink#error in order.
+    private static class Failure {
+        final String code;
+        Failure(String code) { this.code = code; }
+    }
+
+    // Queued after the final event of a finite stream to deliver EventSink#endOfStream in order.
+    private static final Object END_OF_STREAM = new Object();
+
+    private final ArrayDeque<Object> mQueue = new ArrayDeque<>();
+    private final AtomicLong mDelivered = new AtomicLong(0);
+    private final AtomicLong mDropped = new AtomicLong(0);
+    private final AtomicLong mCoalesced = new AtomicLong(0);
+
+    private int mCapacity = DEFAULT_CAPACITY;
+    private Overflow mOverflow = Overflow.DROP_OLDEST;
+    private EventChannel.EventSink mSink;
+    private boolean mDrainScheduled = false;
+    private PluginMetrics.StreamMetrics mMetrics;
+    // Optional:  executed upon the main-thread each time the queue has been emptied into the EventSink.
+    private Runnable mDrainListener;
+
+    void configure(int capacity, Overflow overflow) {
+        synchronized (mQueue) {
+            mCapacity = Math.max(1, capacity);
+            mOverflow = overflow;
+        }
+    }
+
+    void setMetrics(PluginMetrics.StreamMetrics metrics) {
+        synchronized (mQueue) {
+            mMetrics = metrics;
+        }
+    }
+
+    void setDrainListener(Runnable listener) {
+        synchronized (mQueue) {
+            mDrainListener = listener;
+        }
+    }
+
+    void setSink(EventChannel.EventSink sink) {
+        synchronized (mQueue) {
+            mSink = sink;
+            if (sink == null) mQueue.clear();
+        }
+    }
+
+    void offer(Object event) {
+        EventChannel.EventSink sink;
+        PluginMetrics.StreamMetrics metrics;
+        Runnable drained;
+        synchronized (mQueue) {
+            if (mSink == null) return;
+            if (mMetrics != null) mMetrics.recordEmitted();
+            // Fast-path:  nothing pending and we're already on the main-thread.  Any event offered meanwhile is queued
+            // and drained by a later main-thread message, so order is preserved.
+            if (!mQueue.isEmpty() || mDrainScheduled || !isMainThread()) {
+                enqueue(event);
+                return;
+            }
+            sink = mSink;
+            metrics = mMetrics;
+            drained = mDrainListener;
+        }
+        // Delivered outside the lock:  encoding must not block producers calling #offer.
+        deliver(sink, metrics, event);
+        if (drained != null) drained.run();
+    }
+
+    // Called with mQueue locked.  Control events (errors, end-of-stream) are never discarded:  only data events are
+    // dropped or coalesced, and a control event is queued even when the queue is full.
+    private void enqueue(Object event) {
+        if ((mQueue.size() >= mCapacity) && !isControl(event)) {
+            switch (mOverflow) {
+                case DROP_NEWEST:
+                    mDropped.incrementAndGet();
+                    if (mMetrics != null) mMetrics.recordDropped();
+                    return;
+                case COALESCE_LATEST:
+                    if (removeDataEvent(mQueue.descendingIterator())) {
+                        mCoalesced.incrementAndGet();
+                        if (mMetrics != null) mMetrics.recordCoalesced();
+                    }
+                    break;
+                default:
+                    if (removeDataEvent(mQueue.iterator())) {
+                        mDropped.incrementAndGet();
+                        if (mMetrics != null) mMetrics.recordDropped();
+                    }
+            }
+        }
+        mQueue.addLast(event);
+        if (!mDrainScheduled) {
+            mDrainScheduled = true;
+            scheduleDrain();
+        }
+    }
+
+    // Overridden by the unit-tests, which have no main-thread to post to.
+    boolean isMainThread() {
+        return Looper.myLooper() == Looper.getMainLooper();
+    }
+
+    void scheduleDrain() {
+        BackgroundGeolocation.getUiHandler().post(this);
+    }
+
+    private static boolean isControl(Object event) {
+        return (event instanceof Failure) || (event == END_OF_STREAM);
+    }
+
+    /**
+     * Remove the first data event in the iteration order, returning false if the queue holds only control events.
+     */
+    private static boolean removeDataEvent(Iterator<Object> events) {
+        while (events.hasNext()) {
+            if (!isControl(events.next())) {
+                events.remove();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    void offerError(String code) {
+        offer(new Failure(code));
+    }
+
+    void offerEndOfStream() {
+        offer(END_OF_STREAM);
+    }
+
+    @Override
+    public void run() {
+        // Poll a slice under the lock, then deliver it outside:  encoding must not block producers calling #offer.
+        // mDrainScheduled remains set meanwhile, so no event can overtake the slice via the fast-path.
+        EventChannel.EventSink sink;
+        PluginMetrics.StreamMetrics metrics;
+        Object[] slice;
+        synchronized (mQueue) {
+            sink = mSink;
+            metrics = mMetrics;
+            slice = new Object[(sink != null) ? Math.min(DRAIN_SLICE, mQueue.size()) : 0];
+            for (int n = 0; n < slice.length; n++) {
+                slice[n] = mQueue.pollFirst();
+            }
+        }
+        for (Object event : slice) {
+            deliver(sink, metrics, event);
+        }
+        Runnable drained = null;
+        synchronized (mQueue) {
+            if (mSink != null && !mQueue.isEmpty()) {
+                // Yield the main-thread;  continue draining on the next message.
+                scheduleDrain();
+            } else {
+                mDrainScheduled = false;
+                if (slice.length > 0) drained = mDrainListener;
+            }
+        }
+        if (drained != null) drained.run();
+    }
+
+    private void deliver(EventChannel.EventSink sink, PluginMetrics.StreamMetrics metrics, Object event) {
+        // EventSink#success encodes the event and posts it to the Dart isolate.
+        long start = SystemClock.elapsedRealtimeNanos();
+        if (event instanceof Failure) {
+            sink.error(((Failure) event).code, null, null);
+        } else if (event == END_OF_STREAM) {
+            sink.endOfStream();
+        } else {
+            sink.success(event);
+        }
+        mDelivered.incrementAndGet();
+        if (metrics != null) metrics.recordDelivery(SystemClock.elapsedRealtimeNanos() - start);
+    }
+
+    int size() {
+        synchronized (mQueue) {
+            return mQueue.size();
+        }
+    }
+
+    long getDeliveredCount() { return mDelivered.get(); }
+    long getDroppedCount() { return mDropped.get(); }
+    long getCoalescedCount() { return mCoalesced.get(); }
+}
@@ -0,0 +1,126 @@
+package com.transistorsoft.flutter.backgroundgeolocation.streams;
+
+import com.transistorsoft.flutter.backgroundgeolocation.BackgroundGeolocationModule;
+import com.transistorsoft.locationmanager.adapter.BackgroundGeolocation;
+import com.transistorsoft.locationmanager.adapter.callback.TSGetLocationsCallback;
+import com.transistorsoft.locationmanager.data.LocationModel;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.flutter.plugin.common.EventChannel;
+
+/**
+ * Streams the persisted locations to Dart in chunks of chunkSize records, followed by a "complete" event and
+ * end-of-stream.  Cancelling the Dart subscription stops the export.
+ *
+ * A chunk is converted only once the previous one has been handed to the EventSink (signalled by the EventQueue's
+ * drain-listener), so only one converted chunk exists natively at a time regardless of the size of the database.
+ */
+public class ExportStreamHandler extends StreamHandler {
+    public static final String EVENT = "export";
+
+    private static final String OPTION_CHUNK_SIZE   = "chunkSize";
+    private static final int DEFAULT_CHUNK_SIZE     = 500;
+
+    // Export state, guarded by this.
+    private List<LocationModel> mRecords;
+    private int mChunkSize = DEFAULT_CHUNK_SIZE;
+    private int mExported = 0;
+    private int mIndex = 0;
+
+    private final Runnable mExportTask = new Runnable() {
+        @Override public void run() { exportNextChunk(); }
+    };
+
+    private final Runnable mOnDrained = new Runnable() {
+        @Override public void run() {
+            if (isExporting()) BackgroundGeolocation.getThreadPool().execute(mExportTask);
+        }
+    };
+
+    public ExportStreamHandler() {
+        mEvent = EVENT;
+    }
+
+    @Override
+    public void onListen(Object args, EventChannel.EventSink eventSink) {
+        super.onListen(args, eventSink);
+        synchronized (this) {
+            mRecords = null;
+            mChunkSize = Math.max(1, (int) getLongOption(args, OPTION_CHUNK_SIZE, DEFAULT_CHUNK_SIZE));
+            mExported = 0;
+            mIndex = 0;
+        }
+        mQueue.setDrainListener(mOnDrained);
+
+        BackgroundGeolocation.getInstance(mContext).getLocations(new TSGetLocationsCallback() {
+            @Override public void onSuccess(final List<LocationModel> records) {
+                synchronized (ExportStreamHandler.this) {
+                    mRecords = records;
+                }
+                BackgroundGeolocation.getThreadPool().execute(mExportTask);
+            }
+            @Override public void onFailure(Integer error) {
+                sendError(error.toString());
+                sendEndOfStream();
+            }
+        });
+    }
+
+    @Override
+    public void onCancel(Object args) {
+        mQueue.setDrainListener(null);
+        synchronized (this) {
+            mRecords = null;
+        }
+        super.onCancel(args);
+    }
+
+    private synchronized boolean isExporting() {
+        return mRecords != null;
+    }
+
+    /**
+     * Convert and send the next chunk, or the "complete" event once all records have been sent.
+     */
+    private synchronized void exportNextChunk() {
+        if (mRecords == null) return;
+        int total = mRecords.size();
+        if (mExported >= total) {
+            mRecords = null;
+            Map<String, Object> event = new HashMap<>();
+            event.put("type", "complete");
+            event.put("exported", mExported);
+            event.put("total", total);
+            send(event);
+            sendEndOfStream();
+            return;
+        }
+        int end = Math.min(total, mExported + mChunkSize);
+        JSONArray chunk = new JSONArray();
+        for (int n = mExported; n < end; n++) {
+            chunk.put(mRecords.get(n).json);
+        }
+        Map<String, Object> event = new HashMap<>();
+        event.put("type", "chunk");
+        event.put("index", mIndex);
+        event.put("exported", end);
+        event.put("total", total);
+        try {
+            event.put("locations", BackgroundGeolocationModule.toList(chunk));
+        } catch (JSONException e) {
+            mRecords = null;
+            sendError(e.getMessage());
+            sendEndOfStream();
+            return;
+        }
+        mExported = end;
+        mIndex++;
+        send(event);
+    }
+}
@@ -0,0 +1,74 @@
+package com.transistorsoft.flutter.backgroundgeolocation.streams;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Restricts an event Map to a set of requested keys before it's serialized to Dart.
+ *
+ * Keys are provided as dotted paths (eg: "uuid", "coords.latitude", "location.coords.accuracy").  A path
+ * selects the entire value at that key, including any nested Map.  Keys which are absent from the event are ignored.
+ */
+class FieldProjection {
+    // Tree of requested paths.  A null child selects the entire value.
+    private final Map<String, FieldProjection> mChildren = new HashMap<>();
+
+    /**
+     * Build a FieldProjection from the List of dotted paths provided in the {@link StreamHandler#onListen} arguments.
+     * Returns null when no projection was requested.  The requiredPaths are always included.
+     */
+    static FieldProjection fromArgs(Object args, String key, String[] requiredPaths) {
+        if (!(args instanceof Map)) return null;
+        Object value = ((Map) args).get(key);
+        if (!(value instanceof List) || ((List) value).isEmpty()) return null;
+
+        FieldProjection projection = new FieldProjection();
+        for (Object path : (List) value) {
+            if (path instanceof String) {
+                projection.addPath(((String) path).split("\\."), 0);
+            }
+        }
+        for (String path : requiredPaths) {
+            projection.addPath(path.split("\\."), 0);
+        }
+        return projection;
+    }
+
+    private void addPath(String[] keys, int index) {
+        String key = keys[index];
+        if (mChildren.containsKey(key) && (mChildren.get(key) == null)) {
+            // Already selecting the entire value.
+            return;
+        }
+        if (index == keys.length - 1) {
+            mChildren.put(key, null);
+            return;
+        }
+        FieldProjection child = mChildren.get(key);
+        if (child == null) {
+            child = new FieldProjection();
+            mChildren.put(key, child);
+        }
+        child.addPath(keys, index + 1);
+    }
+
+    /**
+     * Return a new Map containing only the requested keys of source.
+     */
+    Map<String, Object> apply(Map source) {
+        Map<String, Object> result = new HashMap<>();
+        for (Map.Entry<String, FieldProjection> entry : mChildren.entrySet()) {
+            String key = entry.getKey();
+            if (!source.containsKey(key)) continue;
+
+            Object value = source.get(key);
+            FieldProjection child = entry.getValue();
+            if ((child != null) && (value instanceof Map)) {
+                value = child.apply((Map) value);
+            }
+            result.put(key, value);
+        }
+        return result;
+    }
+}
@@ -4,6 +4,9 @@ import com.transistorsoft.locationmanager.adapter.BackgroundGeolocation;
 import com.transistorsoft.locationmanager.adapter.callback.TSGeofenceCallback;
 import com.transistorsoft.locationmanager.event.EventName;
 import com.transistorsoft.locationmanager.event.GeofenceEvent;
+
+import java.util.Map;
+
 import io.flutter.plugin.common.EventChannel;
 
 public class GeofenceStreamHandler extends StreamHandler implements TSGeofenceCallback {
@@ -11,14 +14,25 @@ public class GeofenceStreamHandler extends StreamHandler implements TSGeofenceCa
     public GeofenceStreamHandler() {
         mEvent = EventName.GEOFENCE;
     }
+
+    @Override
+    Object prepare(Object event) {
+        return project((Map) event);
+    }
+
     @Override
     public void onListen(Object args, EventChannel.EventSink eventSink) {
         super.onListen(args, eventSink);
         mSubscription = BackgroundGeolocation.getInstance(mContext).onGeofence(this);
     }
 
+    @Override
+    String[] getRequiredFields() {
+        return new String[] {"identifier", "action", "timestamp", "geofence"};
+    }
+
     @Override
     public void onGeofence(GeofenceEvent event) {
-        mEventSink.success(event.toMap());
+        send(event.toMap());
     }
 }
\ No newline at end of file
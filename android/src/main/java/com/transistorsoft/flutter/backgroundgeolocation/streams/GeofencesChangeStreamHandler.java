@@ -21,6 +21,6 @@ public class GeofencesChangeStreamHandler extends StreamHandler implements TSGeo
 
     @Override
     public void onGeofencesChange(GeofencesChangeEvent event) {
-        mEventSink.success(event.toMap());
+        send(event.toMap());
     }
 }
\ No newline at end of file
@@ -5,6 +5,8 @@ import com.transistorsoft.locationmanager.adapter.callback.TSHeartbeatCallback;
 import com.transistorsoft.locationmanager.event.EventName;
 import com.transistorsoft.locationmanager.event.HeartbeatEvent;
 
+import java.util.Map;
+
 import io.flutter.plugin.common.EventChannel;
 
 public class HeartbeatStreamHandler extends StreamHandler implements TSHeartbeatCallback {
@@ -13,6 +15,11 @@ public class HeartbeatStreamHandler extends StreamHandler implements TSHeartbeat
         mEvent = EventName.HEARTBEAT;
     }
 
+    @Override
+    Object prepare(Object event) {
+        return project((Map) event);
+    }
+
     @Override
     public void onListen(Object args, EventChannel.EventSink eventSink) {
         super.onListen(args, eventSink);
@@ -21,6 +28,6 @@ public class HeartbeatStreamHandler extends StreamHandler implements TSHeartbeat
 
     @Override
     public void onHeartbeat(HeartbeatEvent event) {
-        mEventSink.success(event.toMap());
+        send(event.toMap());
     }
 }
\ No newline at end of file
@@ -28,6 +28,6 @@ public class HttpStreamHandler extends StreamHandler implements TSHttpResponseCa
         event.put("success", response.isSuccess());
         event.put("status", response.status);
         event.put("responseText", response.responseText);
-        mEventSink.success(event);
+        send(event);
     }
 }
\ No newline at end of file
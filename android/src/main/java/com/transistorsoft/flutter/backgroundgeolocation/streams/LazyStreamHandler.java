@@ -0,0 +1,109 @@
+package com.transistorsoft.flutter.backgroundgeolocation.streams;
+
+import android.content.Context;
+
+import com.transistorsoft.flutter.backgroundgeolocation.BackgroundGeolocationModule;
+import com.transistorsoft.locationmanager.event.EventName;
+import com.transistorsoft.locationmanager.http.TSAuthorization;
+
+import io.flutter.plugin.common.BinaryMessenger;
+import io.flutter.plugin.common.EventChannel;
+
+/**
+ * Registers the EventChannel for an event but defers creating its {@link StreamHandler} until Dart subscribes
+ * (onListen).  The handler is released when the subscription is cancelled, so an engine only pays for the streams
+ * it actually listens to.
+ */
+public class LazyStreamHandler implements EventChannel.StreamHandler {
+    /**
+     * All events served by the plugin's EventChannels.
+     */
+    public static final String[] EVENTS = {
+            EventName.LOCATION,
+            EventName.MOTIONCHANGE,
+            EventName.ACTIVITYCHANGE,
+            EventName.GEOFENCESCHANGE,
+            EventName.GEOFENCE,
+            EventName.HEARTBEAT,
+            EventName.HTTP,
+            EventName.SCHEDULE,
+            EventName.CONNECTIVITYCHANGE,
+            EventName.ENABLEDCHANGE,
+            EventName.PROVIDERCHANGE,
+            EventName.POWERSAVECHANGE,
+            EventName.NOTIFICATIONACTION,
+            TSAuthorization.NAME,
+            ExportStreamHandler.EVENT,
+            SyncStreamHandler.EVENT
+    };
+
+    private final String mEvent;
+    private Context mContext;
+    private StreamHandler mHandler;
+
+    public LazyStreamHandler(String event) {
+        mEvent = event;
+    }
+
+    public LazyStreamHandler register(Context context, BinaryMessenger messenger) {
+        mContext = context;
+        String path = BackgroundGeolocationModule.PLUGIN_ID + "/events/" + mEvent;
+        EventChannel channel = new EventChannel(messenger, path, StreamHandler.codecFor(mEvent));
+        channel.setStreamHandler(this);
+        return this;
+    }
+
+    @Override
+    public synchronized void onListen(Object args, EventChannel.EventSink eventSink) {
+        if (mHandler == null) {
+            mHandler = create(mEvent);
+            mHandler.mContext = mContext;
+        }
+        mHandler.onListen(args, eventSink);
+        mHandler.replay();
+    }
+
+    @Override
+    public synchronized void onCancel(Object args) {
+        if (mHandler == null) return;
+        mHandler.onCancel(args);
+        mHandler = null;
+    }
+
+    private static StreamHandler create(String event) {
+        if (event.equals(EventName.LOCATION)) {
+            return new LocationStreamHandler();
+        } else if (event.equals(EventName.MOTIONCHANGE)) {
+            return new MotionChangeStreamHandler();
+        } else if (event.equals(EventName.ACTIVITYCHANGE)) {
+            return new ActivityChangeStreamHandler();
+        } else if (event.equals(EventName.GEOFENCESCHANGE)) {
+            return new GeofencesChangeStreamHandler();
+        } else if (event.equals(EventName.GEOFENCE)) {
+            return new GeofenceStreamHandler();
+        } else if (event.equals(EventName.HEARTBEAT)) {
+            return new HeartbeatStreamHandler();
+        } else if (event.equals(EventName.HTTP)) {
+            return new HttpStreamHandler();
+        } else if (event.equals(EventName.SCHEDULE)) {
+            return new ScheduleStreamHandler();
+        } else if (event.equals(EventName.CONNECTIVITYCHANGE)) {
+            return new ConnectivityChangeStreamHandler();
+        } else if (event.equals(EventName.ENABLEDCHANGE)) {
+            return new EnabledChangeStreamHandler();
+        } else if (event.equals(EventName.PROVIDERCHANGE)) {
+            return new ProviderChangeStreamHandler();
+        } else if (event.equals(EventName.POWERSAVECHANGE)) {
+            return new PowerSaveChangeStreamHandler();
+        } else if (event.equals(EventName.NOTIFICATIONACTION)) {
+            return new NotificationActionStreamHandler();
+        } else if (event.equals(TSAuthorization.NAME)) {
+            return new AuthorizationStreamHandler();
+        } else if (event.equals(ExportStreamHandler.EVENT)) {
+            return new ExportStreamHandler();
+        } else if (event.equals(SyncStreamHandler.EVENT)) {
+            return new SyncStreamHandler();
+        }
+        throw new IllegalArgumentException("Unknown event: " + event);
+    }
+}
@@ -0,0 +1,135 @@
+package com.transistorsoft.flutter.backgroundgeolocation.streams;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Delta-encoding of the location stream.
+ *
+ * A full "keyframe" is sent every keyframeInterval locations.  In between, a "delta" frame carries only the
+ * top-level keys and coords keys whose values changed, latitude / longitude as integer deltas in units of 1e-7 degrees
+ * and an ISO / epoch timestamp as a millisecond delta.  Frames are numbered so the Dart decoder can detect a gap
+ * (eg: a frame discarded by the {@link EventQueue}) and ignore deltas until the next keyframe.
+ *
+ * Keyframe: {frame: "keyframe", seq, data, latE7, lngE7}
+ * Delta:    {frame: "delta", seq, dlat, dlng, dt, changed, coords, removed, removedCoords}
+ *
+ * Must be kept in sync with the Dart `_LocationDeltaDecoder`.
+ */
+class LocationDeltaEncoder {
+    static final int DEFAULT_KEYFRAME_INTERVAL = 10;
+
+    private static final double E7 = 1e7;
+
+    private final int mKeyframeInterval;
+
+    // Frame numbers are unique for the life of the process, so a decoder never confuses the frames of a new subscription
+    // with those of a previous one.
+    private static final AtomicLong sSeq = new AtomicLong(0);
+
+    private int mSinceKeyframe = 0;
+    // The previous location, to which the next delta is applied.
+    private Map<String, Object> mPrevious;
+    private Map<String, Object> mPreviousCoords;
+    private boolean mHasLatLng;
+    private long mLatE7;
+    private long mLngE7;
+    private Long mTimestamp;
+
+    LocationDeltaEncoder(int keyframeInterval) {
+        mKeyframeInterval = Math.max(1, keyframeInterval);
+    }
+
+    /**
+     * Encode a location as a keyframe or delta frame.  forceKeyframe is used after the receiver may have missed a frame.
+     */
+    @SuppressWarnings("unchecked")
+    synchronized Map<String, Object> encode(Map location, boolean forceKeyframe) {
+        Map<String, Object> current = new HashMap<>((Map<String, Object>) location);
+        Map<String, Object> coords = (current.get("coords") instanceof Map) ? new HashMap<>((Map<String, Object>) current.get("coords")) : null;
+        boolean hasLatLng = (coords != null) && (coords.get("latitude") instanceof Number) && (coords.get("longitude") instanceof Number);
+        Object timestamp = current.get("timestamp");
+        Long epoch = LocationMessageCodec.toEpochMillis(timestamp);
+
+        boolean keyframe = forceKeyframe
+                || (mPrevious == null)
+                || (mSinceKeyframe >= mKeyframeInterval - 1)
+                || (hasLatLng != mHasLatLng)
+                || ((coords == null) != (mPreviousCoords == null))
+                || ((epoch == null) != (mTimestamp == null))
+                || ((timestamp != null) && !sameTimestampType(timestamp, mPrevious.get("timestamp")));
+
+        Map<String, Object> frame = new HashMap<>();
+        frame.put("seq", sSeq.incrementAndGet());
+
+        long latE7 = hasLatLng ? Math.round(((Number) coords.get("latitude")).doubleValue() * E7) : 0;
+        long lngE7 = hasLatLng ? Math.round(((Number) coords.get("longitude")).doubleValue() * E7) : 0;
+
+        if (keyframe) {
+            frame.put("frame", "keyframe");
+            frame.put("data", LocationMessageCodec.pack(location));
+            if (hasLatLng) {
+                frame.put("latE7", latE7);
+                frame.put("lngE7", lngE7);
+            }
+            mSinceKeyframe = 0;
+        } else {
+            frame.put("frame", "delta");
+            if (hasLatLng) {
+                frame.put("dlat", latE7 - mLatE7);
+                frame.put("dlng", lngE7 - mLngE7);
+                coords.remove("latitude");
+                coords.remove("longitude");
+                mPreviousCoords.remove("latitude");
+                mPreviousCoords.remove("longitude");
+            }
+            if (epoch != null) {
+                frame.put("dt", epoch - mTimestamp);
+                current.remove("timestamp");
+                mPrevious.remove("timestamp");
+            }
+            current.remove("coords");
+            mPrevious.remove("coords");
+            putDiff(frame, "changed", "removed", mPrevious, current);
+            if (coords != null) {
+                putDiff(frame, "coords", "removedCoords", mPreviousCoords, coords);
+            }
+            mSinceKeyframe++;
+        }
+
+        mPrevious = new HashMap<>((Map<String, Object>) location);
+        mPreviousCoords = (coords != null) ? new HashMap<>((Map<String, Object>) mPrevious.get("coords")) : null;
+        mHasLatLng = hasLatLng;
+        mLatE7 = latE7;
+        mLngE7 = lngE7;
+        mTimestamp = epoch;
+        return frame;
+    }
+
+    private static void putDiff(Map<String, Object> frame, String changedKey, String removedKey, Map<String, Object> previous, Map<String, Object> current) {
+        Map<String, Object> changed = new HashMap<>();
+        for (Map.Entry<String, Object> entry : current.entrySet()) {
+            Object value = entry.getValue();
+            if (!previous.containsKey(entry.getKey()) || !equals(previous.get(entry.getKey()), value)) {
+                changed.put(entry.getKey(), value);
+            }
+        }
+        List<String> removed = new ArrayList<>();
+        for (String key : previous.keySet()) {
+            if (!current.containsKey(key)) removed.add(key);
+        }
+        if (!changed.isEmpty()) frame.put(changedKey, changed);
+        if (!removed.isEmpty()) frame.put(removedKey, removed);
+    }
+
+    private static boolean equals(Object a, Object b) {
+        return (a == null) ? (b == null) : a.equals(b);
+    }
+
+    private static boolean sameTimestampType(Object a, Object b) {
+        return (a instanceof String) ? (b instanceof String) : (b instanceof Number);
+    }
+}
@@ -0,0 +1,103 @@
+package com.transistorsoft.flutter.backgroundgeolocation.streams;
+
+import android.location.Location;
+
+import java.util.Map;
+
+/**
+ * Per-listener filtering of the location stream, applied before a location is serialized to Dart.  Only affects
+ * delivery to this EventChannel;  the SDK records and uploads every location as usual.
+ *
+ * A location is rejected when its accuracy exceeds maxAccuracy, when it's within minDistance meters of the last
+ * delivered location, or when it's fewer than minInterval milliseconds after the last delivered location.
+ */
+class LocationFilter {
+    static final String OPTION_MAX_ACCURACY = "maxAccuracy";
+    static final String OPTION_MIN_DISTANCE = "minDistance";
+    static final String OPTION_MIN_INTERVAL = "minInterval";
+
+    private final double mMaxAccuracy;
+    private final double mMinDistance;
+    private final long mMinInterval;
+
+    // The last location delivered.
+    private boolean mHasLast = false;
+    private double mLastLatitude;
+    private double mLastLongitude;
+    private Long mLastTimestamp;
+
+    private long mRejectedCount = 0;
+
+    private LocationFilter(double maxAccuracy, double minDistance, long minInterval) {
+        mMaxAccuracy = maxAccuracy;
+        mMinDistance = minDistance;
+        mMinInterval = minInterval;
+    }
+
+    /**
+     * Build a LocationFilter from the {@link StreamHandler#onListen} arguments.  Returns null when no filter was requested.
+     */
+    static LocationFilter fromArgs(Object args) {
+        if (!(args instanceof Map)) return null;
+        Map options = (Map) args;
+        double maxAccuracy = getDouble(options, OPTION_MAX_ACCURACY);
+        double minDistance = getDouble(options, OPTION_MIN_DISTANCE);
+        long minInterval = (long) getDouble(options, OPTION_MIN_INTERVAL);
+
+        if ((maxAccuracy <= 0) && (minDistance <= 0) && (minInterval <= 0)) {
+            return null;
+        }
+        return new LocationFilter(maxAccuracy, minDistance, minInterval);
+    }
+
+    /**
+     * Return true if the location should be delivered, recording it as the last delivered location.
+     */
+    synchronized boolean accept(Map location) {
+        Object coords = location.get("coords");
+        if (!(coords instanceof Map)) {
+            // Not a real location (eg: a dummy payload):  always deliver.
+            return true;
+        }
+        Map c = (Map) coords;
+        Object latitude = c.get("latitude");
+        Object longitude = c.get("longitude");
+        Object accuracy = c.get("accuracy");
+        Long timestamp = LocationMessageCodec.toEpochMillis(location.get("timestamp"));
+
+        if ((mMaxAccuracy > 0) && (accuracy instanceof Number) && (((Number) accuracy).doubleValue() > mMaxAccuracy)) {
+            mRejectedCount++;
+            return false;
+        }
+        if (mHasLast) {
+            if ((mMinInterval > 0) && (timestamp != null) && (mLastTimestamp != null) && (timestamp - mLastTimestamp < mMinInterval)) {
+                mRejectedCount++;
+                return false;
+            }
+            if ((mMinDistance > 0) && (latitude instanceof Number) && (longitude instanceof Number)) {
+                float[] distance = new float[1];
+                Location.distanceBetween(mLastLatitude, mLastLongitude, ((Number) latitude).doubleValue(), ((Number) longitude).doubleValue(), distance);
+                if (distance[0] < mMinDistance) {
+                    mRejectedCount++;
+                    return false;
+                }
+            }
+        }
+        if ((latitude instanceof Number) && (longitude instanceof Number)) {
+            mHasLast = true;
+            mLastLatitude = ((Number) latitude).doubleValue();
+            mLastLongitude = ((Number) longitude).doubleValue();
+            mLastTimestamp = timestamp;
+        }
+        return true;
+    }
+
+    synchronized long getRejectedCount() {
+        return mRejectedCount;
+    }
+
+    private static double getDouble(Map options, String key) {
+        Object value = options.get(key);
+        return (value instanceof Number) ? ((Number) value).doubleValue() : 0;
+    }
+}
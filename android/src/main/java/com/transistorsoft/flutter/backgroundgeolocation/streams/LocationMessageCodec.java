@@ -0,0 +1,146 @@
+package com.transistorsoft.flutter.backgroundgeolocation.streams;
+
+import com.transistorsoft.flutter.backgroundgeolocation.LocationRecords;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import io.flutter.plugin.common.MethodCodec;
+import io.flutter.plugin.common.StandardMessageCodec;
+import io.flutter.plugin.common.StandardMethodCodec;
+
+/**
+ * Compact encoding of location events for the location / motionchange EventChannels.
+ *
+ * A location wrapped with {@link #pack(Map)} is written as a fixed-layout record of primitive coords, odometer,
+ * timestamp and is_moving, followed by the remaining keys (activity, battery, extras, etc) as a standard Map.
+ * This avoids re-sending the repeated coords key-strings with every event.  Must be kept in sync with the Dart
+ * `_LocationMessageCodec`.
+ */
+class LocationMessageCodec extends StandardMessageCodec {
+    static final LocationMessageCodec INSTANCE = new LocationMessageCodec();
+    static final MethodCodec METHOD_CODEC = new StandardMethodCodec(INSTANCE);
+
+    private static final byte PACKED_LOCATION = (byte) 128;
+    // StandardMessageCodec's type-byte for a Map, for writing the remainder without building it.
+    private static final byte MAP = 13;
+
+    private static final int FLAG_HAS_TIMESTAMP = 1;
+    private static final int FLAG_ISO_TIMESTAMP = 1 << 1;
+    private static final int FLAG_HAS_IS_MOVING = 1 << 2;
+    private static final int FLAG_IS_MOVING     = 1 << 3;
+
+    // Fixed order of the packed coords doubles.  A missing value is written as NaN.
+    private static final String[] COORDS = {
+            "latitude",
+            "longitude",
+            "accuracy",
+            "speed",
+            "speed_accuracy",
+            "heading",
+            "heading_accuracy",
+            "altitude",
+            "altitude_accuracy",
+            "ellipsoidal_altitude"
+    };
+    private static final Set<String> PACKED_COORDS = new HashSet<>(Arrays.asList(COORDS));
+
+    private static class PackedLocation {
+        final Map<String, Object> location;
+        PackedLocation(Map<String, Object> location) { this.location = location; }
+    }
+
+    /**
+     * Mark a location Map for compact encoding.  Maps without a coords Map are returned untouched.
+     */
+    @SuppressWarnings("unchecked")
+    static Object pack(Map location) {
+        return (location.get("coords") instanceof Map) ? new PackedLocation((Map<String, Object>) location) : location;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void writeValue(ByteArrayOutputStream stream, Object value) {
+        if (!(value instanceof PackedLocation)) {
+            super.writeValue(stream, value);
+            return;
+        }
+        // Fields are read in-place:  the location and its coords are not copied to strip the packed keys.
+        Map<String, Object> location = ((PackedLocation) value).location;
+        Map<String, Object> coords = (Map<String, Object>) location.get("coords");
+
+        stream.write(PACKED_LOCATION);
+        writeAlignment(stream, 8);
+        for (String key : COORDS) {
+            writeDouble(stream, toDouble(coords.get(key)));
+        }
+        writeDouble(stream, toDouble(location.get("odometer")));
+
+        int flags = 0;
+        long timestamp = 0;
+        Object ts = location.get("timestamp");
+        Long epoch = toEpochMillis(ts);
+        // Unrecognized format:  leave it in the remainder Map.
+        if (epoch != null) {
+            timestamp = epoch;
+            flags |= (ts instanceof String) ? (FLAG_HAS_TIMESTAMP | FLAG_ISO_TIMESTAMP) : FLAG_HAS_TIMESTAMP;
+        }
+        writeLong(stream, timestamp);
+
+        Object isMoving = location.get("is_moving");
+        if (isMoving instanceof Boolean) {
+            flags |= FLAG_HAS_IS_MOVING;
+            if ((Boolean) isMoving) flags |= FLAG_IS_MOVING;
+        }
+        stream.write(flags);
+
+        // The remainder is written as a standard Map of the keys not packed above.  Any platform-specific coords
+        // (eg: floor) travel with the remainder.
+        boolean hasTimestamp = (flags & FLAG_HAS_TIMESTAMP) != 0;
+        int extraCoords = 0;
+        for (String key : coords.keySet()) {
+            if (!PACKED_COORDS.contains(key)) extraCoords++;
+        }
+        int size = (extraCoords > 0) ? 1 : 0;
+        for (String key : location.keySet()) {
+            if (!isPacked(key, hasTimestamp)) size++;
+        }
+        stream.write(MAP);
+        writeSize(stream, size);
+        for (Map.Entry<String, Object> entry : location.entrySet()) {
+            if (isPacked(entry.getKey(), hasTimestamp)) continue;
+            super.writeValue(stream, entry.getKey());
+            writeValue(stream, entry.getValue());
+        }
+        if (extraCoords > 0) {
+            super.writeValue(stream, "coords");
+            stream.write(MAP);
+            writeSize(stream, extraCoords);
+            for (Map.Entry<String, Object> entry : coords.entrySet()) {
+                if (PACKED_COORDS.contains(entry.getKey())) continue;
+                super.writeValue(stream, entry.getKey());
+                writeValue(stream, entry.getValue());
+            }
+        }
+    }
+
+    private static boolean isPacked(String key, boolean hasTimestamp) {
+        return "coords".equals(key) || "odometer".equals(key) || "is_moving".equals(key)
+                || (hasTimestamp && "timestamp".equals(key));
+    }
+
+    /**
+     * Epoch milliseconds of a location timestamp, which is either an ISO-8601 UTC String or an epoch Number
+     * (PersistenceConfig.timestampFormat "epoch").  Returns null for an unrecognized value.
+     */
+    static Long toEpochMillis(Object timestamp) {
+        return LocationRecords.toEpochMillis(timestamp);
+    }
+
+    private static double toDouble(Object value) {
+        return (value instanceof Number) ? ((Number) value).doubleValue() : Double.NaN;
+    }
+}
@@ -2,18 +2,52 @@ package com.transistorsoft.flutter.backgroundgeolocation.streams;
 
 import android.util.Log;
 
+import com.transistorsoft.flutter.backgroundgeolocation.TrajectorySimplifier;
 import com.transistorsoft.locationmanager.adapter.BackgroundGeolocation;
 import com.transistorsoft.locationmanager.adapter.callback.TSLocationCallback;
 import com.transistorsoft.locationmanager.event.EventName;
 import com.transistorsoft.locationmanager.event.LocationEvent;
-import com.transistorsoft.locationmanager.location.TSLocation;
-import com.transistorsoft.locationmanager.logger.TSLog;
 
-import org.json.JSONException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
 import io.flutter.plugin.common.EventChannel;
 
 public class LocationStreamHandler extends StreamHandler implements TSLocationCallback {
+    private static final String OPTION_BATCH_SIZE       = "batchSize";
+    private static final String OPTION_BATCH_TIMEOUT    = "batchTimeout";
+    private static final String OPTION_DELTA_ENCODING   = "deltaEncoding";
+    private static final String OPTION_KEYFRAME_INTERVAL = "keyframeInterval";
+    private static final String OPTION_SIMPLIFY         = "simplifyTolerance";
+    private static final long DEFAULT_BATCH_TIMEOUT     = 10000;
+    // Simplification holds each location until the next:  retain a held location after this delay or window size.
+    private static final long SIMPLIFY_MAX_DELAY        = 10000;
+    private static final int SIMPLIFY_MAX_WINDOW        = 100;
+
+    // Batched delivery:  when mBatchSize > 1, locations are accumulated and sent as a single List.
+    private int mBatchSize = 0;
+    private long mBatchTimeout = DEFAULT_BATCH_TIMEOUT;
+    private final List<Object> mBatch = new ArrayList<>();
+    private final Runnable mFlushBatchTask = new Runnable() {
+        @Override public void run() { flushBatch(); }
+    };
+
+    // Optional per-listener filter applied before serialization.
+    private LocationFilter mFilter;
+    // Optional delta-encoding.  A keyframe is forced whenever the EventQueue has discarded a frame.
+    private LocationDeltaEncoder mDeltaEncoder;
+    private long mDiscardedCount = 0;
+    // Optional opening-window simplification, discarding locations within tolerance of the retained track.
+    private TrajectorySimplifier.Window mSimplifier;
+    private long mSimplifiedCount = 0;
+    private final Runnable mFlushSimplifierTask = new Runnable() {
+        @Override public void run() {
+            TrajectorySimplifier.Window simplifier = mSimplifier;
+            Object held = (simplifier != null) ? simplifier.flush() : null;
+            if (held != null) emit((Map) held);
+        }
+    };
 
     public LocationStreamHandler() {
         mEvent = EventName.LOCATION;
@@ -22,16 +56,126 @@ public class LocationStreamHandler extends StreamHandler implements TSLocationCa
     @Override
     public void onListen(Object args, EventChannel.EventSink eventSink) {
         super.onListen(args, eventSink);
+        mBatchSize = (int) getLongOption(args, OPTION_BATCH_SIZE, 0);
+        mBatchTimeout = getLongOption(args, OPTION_BATCH_TIMEOUT, DEFAULT_BATCH_TIMEOUT);
+        mFilter = LocationFilter.fromArgs(args);
+        mDeltaEncoder = getBooleanOption(args, OPTION_DELTA_ENCODING, false)
+                ? new LocationDeltaEncoder((int) getLongOption(args, OPTION_KEYFRAME_INTERVAL, LocationDeltaEncoder.DEFAULT_KEYFRAME_INTERVAL))
+                : null;
+        mDiscardedCount = mQueue.getDroppedCount() + mQueue.getCoalescedCount();
+        double tolerance = getDoubleOption(args, OPTION_SIMPLIFY, 0);
+        mSimplifier = (tolerance > 0) ? new TrajectorySimplifier.Window(tolerance, SIMPLIFY_MAX_WINDOW) : null;
+        mSimplifiedCount = 0;
         mSubscription = BackgroundGeolocation.getInstance(mContext).onLocation(this);
     }
 
+    @Override
+    public void onCancel(Object args) {
+        BackgroundGeolocation.getUiHandler().removeCallbacks(mFlushBatchTask);
+        BackgroundGeolocation.getUiHandler().removeCallbacks(mFlushSimplifierTask);
+        synchronized (mBatch) {
+            mBatch.clear();
+        }
+        if ((mFilter != null) && (mFilter.getRejectedCount() > 0)) {
+            Log.d(BackgroundGeolocation.TAG, "[" + mEvent + "] filtered: " + mFilter.getRejectedCount());
+        }
+        if (mSimplifiedCount > 0) {
+            Log.d(BackgroundGeolocation.TAG, "[" + mEvent + "] simplified: " + mSimplifiedCount);
+        }
+        super.onCancel(args);
+    }
+
     @Override
     public void onLocation(LocationEvent event) {
-        mEventSink.success(event.toMap());
+        Map location = event.toMap();
+        record(location);
+        process(location);
+    }
+
+    @Override
+    void replayEvent(Object event) {
+        process((Map) event);
+    }
+
+    /**
+     * Run a raw location through this listener's filter, simplifier, projection and encoding.
+     */
+    private void process(Map location) {
+        if ((mFilter != null) && !mFilter.accept(location)) {
+            return;
+        }
+        if (mSimplifier != null) {
+            location = simplify(location);
+            if (location == null) return;
+        }
+        emit(location);
+    }
+
+    /**
+     * Offer the location to the simplifier, returning a previously held location which is now retained, or null.
+     */
+    private Map simplify(Map location) {
+        Object coords = location.get("coords");
+        if (!(coords instanceof Map)
+                || !(((Map) coords).get("latitude") instanceof Number)
+                || !(((Map) coords).get("longitude") instanceof Number)) {
+            return location;
+        }
+        double latitude = ((Number) ((Map) coords).get("latitude")).doubleValue();
+        double longitude = ((Number) ((Map) coords).get("longitude")).doubleValue();
+        // The previously held location is either retained or discarded by this offer.
+        boolean held = mSimplifier.isHolding();
+        Object retained = mSimplifier.offer(latitude, longitude, location);
+        if (held && (retained == null)) mSimplifiedCount++;
+        BackgroundGeolocation.getUiHandler().removeCallbacks(mFlushSimplifierTask);
+        BackgroundGeolocation.getUiHandler().postDelayed(mFlushSimplifierTask, SIMPLIFY_MAX_DELAY);
+        return (Map) retained;
+    }
+
+    private void emit(Map location) {
+        Object message = encodeLocation(project(location));
+        if (mBatchSize <= 1) {
+            mQueue.offer(message);
+            return;
+        }
+        int size;
+        synchronized (mBatch) {
+            mBatch.add(message);
+            size = mBatch.size();
+        }
+        if (size >= mBatchSize) {
+            flushBatch();
+        } else if (size == 1) {
+            // First location of a new batch starts the latency window.
+            BackgroundGeolocation.getUiHandler().postDelayed(mFlushBatchTask, mBatchTimeout);
+        }
+    }
+
+    private Object encodeLocation(Map location) {
+        if (mDeltaEncoder == null) {
+            return LocationMessageCodec.pack(location);
+        }
+        long discarded = mQueue.getDroppedCount() + mQueue.getCoalescedCount();
+        boolean forceKeyframe = (discarded != mDiscardedCount);
+        mDiscardedCount = discarded;
+        return mDeltaEncoder.encode(location, forceKeyframe);
     }
 
     @Override
     public void onError(Integer error) {
-        mEventSink.error(error.toString(), null, null);
+        // Deliver any pending locations first so the error is received in order.
+        flushBatch();
+        sendError(error.toString());
+    }
+
+    private void flushBatch() {
+        BackgroundGeolocation.getUiHandler().removeCallbacks(mFlushBatchTask);
+        List<Object> batch;
+        synchronized (mBatch) {
+            if (mBatch.isEmpty()) return;
+            batch = new ArrayList<>(mBatch);
+            mBatch.clear();
+        }
+        mQueue.offer(batch);
     }
-}
\ No newline at end of file
+}
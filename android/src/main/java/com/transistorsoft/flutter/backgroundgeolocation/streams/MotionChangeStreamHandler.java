@@ -9,6 +9,8 @@ import com.transistorsoft.locationmanager.logger.TSLog;
 
 import org.json.JSONException;
 
+import java.util.Map;
+
 import io.flutter.plugin.common.EventChannel;
 
 public class MotionChangeStreamHandler extends StreamHandler implements TSLocationCallback {
@@ -23,12 +25,17 @@ public class MotionChangeStreamHandler extends StreamHandler implements TSLocati
         mSubscription = BackgroundGeolocation.getInstance(mContext).onMotionChange(this);
     }
 
+    @Override
+    Object prepare(Object event) {
+        return LocationMessageCodec.pack(project((Map) event));
+    }
+
     @Override
     public void onLocation(LocationEvent event) {
-        mEventSink.success(event.toMap());
+        send(event.toMap());
     }
     @Override
     public void onError(Integer error) {
-        mEventSink.error(error.toString(), null, null);
+        sendError(error.toString());
     }
 }
\ No newline at end of file
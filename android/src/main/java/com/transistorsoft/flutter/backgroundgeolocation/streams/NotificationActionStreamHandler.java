@@ -19,6 +19,6 @@ public class NotificationActionStreamHandler extends StreamHandler implements TS
 
     @Override
     public void onClick(String action) {
-        mEventSink.success(action);
+        send(action);
     }
 }
\ No newline at end of file
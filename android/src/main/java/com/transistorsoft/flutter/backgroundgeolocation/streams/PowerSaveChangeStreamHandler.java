@@ -18,6 +18,16 @@ public class PowerSaveChangeStreamHandler extends StreamHandler implements TSPow
     }
     @Override
     public void onPowerSaveChange(Boolean isPowerSaveMode) {
-        mEventSink.success(isPowerSaveMode);
+        send(isPowerSaveMode);
     }
-}
\ No newline at end of file
+
+    @Override
+    boolean isStateStream() {
+        return true;
+    }
+
+    @Override
+    Object getCurrentState() {
+        return BackgroundGeolocation.getInstance(mContext).isPowerSaveMode();
+    }
+}
@@ -20,6 +20,16 @@ public class ProviderChangeStreamHandler extends StreamHandler implements TSLoca
 
     @Override
     public void onLocationProviderChange(LocationProviderChangeEvent event) {
-        mEventSink.success(event.toMap());
+        send(event.toMap());
     }
-}
\ No newline at end of file
+
+    @Override
+    boolean isStateStream() {
+        return true;
+    }
+
+    @Override
+    Object getCurrentState() {
+        return BackgroundGeolocation.getInstance(mContext).getProviderState().toMap();
+    }
+}
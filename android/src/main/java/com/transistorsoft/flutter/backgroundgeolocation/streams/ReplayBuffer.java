@@ -0,0 +1,59 @@
+package com.transistorsoft.flutter.backgroundgeolocation.streams;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Retains the most recent events of a stream so they can be replayed to a subscriber which listens late
+ * (eg: after a hot-restart or Activity re-creation).  Buffers are process-wide, keyed by event-name, so they
+ * outlive the (lazily-created) {@link StreamHandler} instances.
+ */
+class ReplayBuffer {
+    enum Policy {
+        NONE,
+        LAST,
+        BUFFER;
+
+        static Policy fromString(String value, Policy defaultPolicy) {
+            if ("none".equalsIgnoreCase(value)) return NONE;
+            if ("last".equalsIgnoreCase(value)) return LAST;
+            if ("buffer".equalsIgnoreCase(value)) return BUFFER;
+            return defaultPolicy;
+        }
+    }
+
+    static final int DEFAULT_SIZE = 10;
+
+    private static final Map<String, ReplayBuffer> sBuffers = new HashMap<>();
+
+    static ReplayBuffer forEvent(String event) {
+        synchronized (sBuffers) {
+            ReplayBuffer buffer = sBuffers.get(event);
+            if (buffer == null) {
+                buffer = new ReplayBuffer();
+                sBuffers.put(event, buffer);
+            }
+            return buffer;
+        }
+    }
+
+    private final ArrayDeque<Object> mEvents = new ArrayDeque<>();
+
+    synchronized void add(Object event, int capacity) {
+        mEvents.addLast(event);
+        while (mEvents.size() > capacity) {
+            mEvents.pollFirst();
+        }
+    }
+
+    synchronized Object last() {
+        return mEvents.peekLast();
+    }
+
+    synchronized List<Object> all() {
+        return new ArrayList<>(mEvents);
+    }
+}
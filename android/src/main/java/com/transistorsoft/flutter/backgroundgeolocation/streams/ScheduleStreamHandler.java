@@ -25,7 +25,7 @@ public class ScheduleStreamHandler extends StreamHandler implements TSScheduleCa
     @Override
     public void onSchedule(ScheduleEvent event) {
         try {
-            mEventSink.success(Util.toMap(event.getState()));
+            send(Util.toMap(event.getState()));
         } catch (JSONException e) {
             android.util.Log.e(BackgroundGeolocation.TAG, e.getMessage(), e);
         }
@@ -3,37 +3,97 @@ package com.transistorsoft.flutter.backgroundgeolocation.streams;
 import android.content.Context;
 import android.util.Log;
 
-import com.transistorsoft.flutter.backgroundgeolocation.BackgroundGeolocationModule;
+import com.transistorsoft.flutter.backgroundgeolocation.PluginMetrics;
 import com.transistorsoft.locationmanager.adapter.BackgroundGeolocation;
+import com.transistorsoft.locationmanager.event.EventName;
 import com.transistorsoft.locationmanager.logger.TSLog;
 
-import io.flutter.plugin.common.BinaryMessenger;
+import java.util.Map;
+
 import io.flutter.plugin.common.EventChannel;
+import io.flutter.plugin.common.MethodCodec;
+import io.flutter.plugin.common.StandardMethodCodec;
 
 class StreamHandler implements EventChannel.StreamHandler{
+    static final String OPTION_QUEUE_SIZE   = "queueSize";
+    static final String OPTION_OVERFLOW     = "overflow";
+    static final String OPTION_REPLAY       = "replay";
+    static final String OPTION_REPLAY_SIZE  = "replaySize";
+    static final String OPTION_FIELDS       = "fields";
+
     protected Context mContext;
-    protected EventChannel.EventSink mEventSink;
-    private EventChannel mChannel;
     String mEvent;
     protected AutoCloseable mSubscription;
-
-    public StreamHandler register(Context context, BinaryMessenger messenger) {
-        mContext = context;
-        String path = BackgroundGeolocationModule.PLUGIN_ID + "/events/" + mEvent;
-        //TSLog.logger.debug(path);
-
-        mChannel = new EventChannel(messenger, path);
-        mChannel.setStreamHandler(this);
-        return this;
-    }
+    // Bounded hand-off to the EventSink.
+    final EventQueue mQueue = new EventQueue();
+    // Events retained for late subscribers.
+    private ReplayBuffer.Policy mReplayPolicy = ReplayBuffer.Policy.NONE;
+    private int mReplaySize = 1;
+    // Optional subset of event keys to serialize.
+    private FieldProjection mProjection;
 
     @Override
     public void onListen(Object args, EventChannel.EventSink eventSink) {
         //TSLog.logger.debug(mEvent);
-        mEventSink = eventSink;
+        mQueue.configure(
+                (int) getLongOption(args, OPTION_QUEUE_SIZE, EventQueue.DEFAULT_CAPACITY),
+                EventQueue.Overflow.fromString(getStringOption(args, OPTION_OVERFLOW, null))
+        );
+        mQueue.setMetrics(PluginMetrics.forStream(mEvent));
+        mQueue.setSink(eventSink);
+        mProjection = FieldProjection.fromArgs(args, OPTION_FIELDS, getRequiredFields());
+
+        mReplayPolicy = ReplayBuffer.Policy.fromString(getStringOption(args, OPTION_REPLAY, null), ReplayBuffer.Policy.NONE);
+        mReplaySize = (mReplayPolicy == ReplayBuffer.Policy.BUFFER) ? Math.max(1, (int) getLongOption(args, OPTION_REPLAY_SIZE, ReplayBuffer.DEFAULT_SIZE)) : 1;
+    }
+
+    /**
+     * Deliver the retained events according to the replay policy.  Called after #onListen, once the subclass has
+     * configured its options, since the raw events are run through this listener's own #prepare / #replayEvent.
+     */
+    void replay() {
+        ReplayBuffer buffer = ReplayBuffer.forEvent(mEvent);
+        if (mReplayPolicy == ReplayBuffer.Policy.LAST) {
+            Object state = getCurrentState();
+            if (state != null) {
+                send(state);
+            } else if (buffer.last() != null) {
+                replayEvent(buffer.last());
+            }
+        } else if (mReplayPolicy == ReplayBuffer.Policy.BUFFER) {
+            for (Object event : buffer.all()) {
+                replayEvent(event);
+            }
+        }
+    }
+
+    /**
+     * Deliver a raw event retained by the ReplayBuffer through this listener's pipeline.
+     */
+    void replayEvent(Object event) {
+        mQueue.offer(prepare(event));
+    }
+
+    /**
+     * State-like streams always retain their last event, so a subscriber may opt-in to the LAST replay policy at any time.
+     */
+    boolean isStateStream() {
+        return false;
+    }
+
+    /**
+     * The current state for a state-like stream, delivered upon subscription with the LAST replay policy.
+     * Return null to replay the last recorded event instead.
+     */
+    Object getCurrentState() {
+        return null;
     }
     @Override
     public void onCancel(Object args) {
+        mQueue.setSink(null);
+        if ((mQueue.getDroppedCount() > 0) || (mQueue.getCoalescedCount() > 0)) {
+            Log.d(BackgroundGeolocation.TAG, "[" + mEvent + "] delivered: " + mQueue.getDeliveredCount() + ", dropped: " + mQueue.getDroppedCount() + ", coalesced: " + mQueue.getCoalescedCount());
+        }
         try {
             if (mSubscription != null) {
                 mSubscription.close();   // unregister listener cleanly
@@ -44,4 +104,102 @@ class StreamHandler implements EventChannel.StreamHandler{
             Log.d(BackgroundGeolocation.TAG, "Failed to close listener for " + mEvent + ": " + e);
         }
     }
+
+    /**
+     * The codec of an event's EventChannel.  Must match the codec of the Dart EventChannel.
+     */
+    static MethodCodec codecFor(String event) {
+        if (event.equals(EventName.LOCATION) || event.equals(EventName.MOTIONCHANGE)) {
+            return LocationMessageCodec.METHOD_CODEC;
+        }
+        return StandardMethodCodec.INSTANCE;
+    }
+
+    /**
+     * Keys always retained by a field projection, required by the corresponding Dart event class.
+     */
+    String[] getRequiredFields() {
+        return new String[0];
+    }
+
+    /**
+     * Restrict an event Map to the fields requested by the Dart StreamOptions, if any.
+     */
+    protected Map project(Map event) {
+        return (mProjection != null) ? mProjection.apply(event) : event;
+    }
+
+    /**
+     * Apply this listener's options (eg: field projection, encoding) to a raw event.
+     */
+    Object prepare(Object event) {
+        return event;
+    }
+
+    /**
+     * Deliver a raw event to Dart through the bounded {@link EventQueue}.
+     */
+    protected void send(Object event) {
+        record(event);
+        mQueue.offer(prepare(event));
+    }
+
+    /**
+     * Retain a raw event (before projection / encoding) for replay to later listeners, which may have other options.
+     */
+    protected void record(Object event) {
+        if ((mReplayPolicy != ReplayBuffer.Policy.NONE) || isStateStream()) {
+            ReplayBuffer.forEvent(mEvent).add(event, mReplaySize);
+        }
+    }
+
+    /**
+     * Deliver an error to Dart, in order with any queued events.
+     */
+    protected void sendError(String code) {
+        mQueue.offerError(code);
+    }
+
+    /**
+     * Signal the end of a finite stream to Dart, in order with any queued events.
+     */
+    protected void sendEndOfStream() {
+        mQueue.offerEndOfStream();
+    }
+
+    /**
+     * Read a numeric option from the {@link #onListen} arguments provided by the Dart StreamOptions.
+     */
+    static long getLongOption(Object args, String key, long defaultValue) {
+        if (!(args instanceof Map)) return defaultValue;
+        Object value = ((Map) args).get(key);
+        return (value instanceof Number) ? ((Number) value).longValue() : defaultValue;
+    }
+
+    /**
+     * Read a decimal option from the {@link #onListen} arguments provided by the Dart StreamOptions.
+     */
+    static double getDoubleOption(Object args, String key, double defaultValue) {
+        if (!(args instanceof Map)) return defaultValue;
+        Object value = ((Map) args).get(key);
+        return (value instanceof Number) ? ((Number) value).doubleValue() : defaultValue;
+    }
+
+    /**
+     * Read a boolean option from the {@link #onListen} arguments provided by the Dart StreamOptions.
+     */
+    static boolean getBooleanOption(Object args, String key, boolean defaultValue) {
+        if (!(args instanceof Map)) return defaultValue;
+        Object value = ((Map) args).get(key);
+        return (value instanceof Boolean) ? (Boolean) value : defaultValue;
+    }
+
+    /**
+     * Read a String option from the {@link #onListen} arguments provided by the Dart StreamOptions.
+     */
+    static String getStringOption(Object args, String key, String defaultValue) {
+        if (!(args instanceof Map)) return defaultValue;
+        Object value = ((Map) args).get(key);
+        return (value instanceof String) ? (String) value : defaultValue;
+    }
 }
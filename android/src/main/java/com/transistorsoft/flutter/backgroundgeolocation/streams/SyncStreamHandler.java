@@ -0,0 +1,195 @@
+package com.transistorsoft.flutter.backgroundgeolocation.streams;
+
+import android.os.SystemClock;
+
+import com.transistorsoft.flutter.backgroundgeolocation.BackgroundGeolocationModule;
+import com.transistorsoft.locationmanager.adapter.BackgroundGeolocation;
+import com.transistorsoft.locationmanager.adapter.callback.TSGetCountCallback;
+import com.transistorsoft.locationmanager.adapter.callback.TSHttpResponseCallback;
+import com.transistorsoft.locationmanager.adapter.callback.TSSyncCallback;
+import com.transistorsoft.locationmanager.config.TSConfig;
+import com.transistorsoft.locationmanager.data.LocationModel;
+import com.transistorsoft.locationmanager.http.HttpResponse;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import io.flutter.plugin.common.EventChannel;
+
+/**
+ * Executes a sync when listened-to, emitting a "progress" event for each HTTP request of the upload (the SDK uploads
+ * in batches of HttpConfig.maxBatchSize when HttpConfig.batchSync is enabled), followed by a "complete" event and
+ * end-of-stream.
+ *
+ * Progress is counted from the records posted by each request, using the record count and the HttpConfig batching
+ * captured when the sync starts, so each response costs no further database query.  Only the number of requests
+ * expected for those records is counted:  the HTTP listener is then removed, so later (eg: autoSync) traffic is ignored.
+ *
+ * The synced records are not echoed to Dart unless the "echo" option is provided.  Cancelling the subscription stops
+ * the progress events;  the upload itself continues in the SDK.
+ */
+public class SyncStreamHandler extends StreamHandler implements TSHttpResponseCallback {
+    public static final String EVENT = "sync";
+
+    private static final String OPTION_ECHO = "echo";
+
+    private final AtomicBoolean mActive = new AtomicBoolean(false);
+    private volatile boolean mEcho = false;
+    // Sync progress, written by the SDK callback-threads:  guarded by this.
+    private int mTotal = 0;
+    // Records posted per request and the number of requests expected to upload mTotal records.
+    private int mBatchSize = 1;
+    private int mExpectedRequests = 0;
+    private int mRequests = 0;
+    private int mSynced = 0;
+    private long mLastResponseAt = 0;
+
+    public SyncStreamHandler() {
+        mEvent = EVENT;
+    }
+
+    @Override
+    public void onListen(Object args, EventChannel.EventSink eventSink) {
+        super.onListen(args, eventSink);
+        mEcho = getBooleanOption(args, OPTION_ECHO, false);
+        synchronized (this) {
+            mRequests = 0;
+            mSynced = 0;
+            mActive.set(true);
+        }
+
+        final BackgroundGeolocation adapter = BackgroundGeolocation.getInstance(mContext);
+        adapter.getCount(new TSGetCountCallback() {
+            @Override public void onSuccess(Integer count) {
+                synchronized (SyncStreamHandler.this) {
+                    // Cancelled before the sync began:  don't start it.
+                    if (!mActive.get()) return;
+                    mTotal = count;
+                    mBatchSize = getBatchSize(count);
+                    mExpectedRequests = (count + mBatchSize - 1) / mBatchSize;
+                    mLastResponseAt = SystemClock.elapsedRealtime();
+                    mSubscription = adapter.onHttp(SyncStreamHandler.this);
+                }
+                adapter.sync(new TSSyncCallback() {
+                    @Override public void onSuccess(final List<LocationModel> records) {
+                        BackgroundGeolocation.getThreadPool().execute(new Runnable() {
+                            @Override public void run() {
+                                complete(records);
+                            }
+                        });
+                    }
+                    @Override public void onFailure(String error) {
+                        fail(error);
+                    }
+                });
+            }
+            @Override public void onFailure(String error) {
+                fail(error);
+            }
+        });
+    }
+
+    @Override
+    public void onCancel(Object args) {
+        synchronized (this) {
+            mActive.set(false);
+            closeSubscription();
+        }
+        super.onCancel(args);
+    }
+
+    @Override
+    public void onHttpResponse(HttpResponse response) {
+        Map<String, Object> event = new HashMap<>();
+        synchronized (this) {
+            if (!mActive.get() || (mRequests >= mExpectedRequests)) return;
+            long now = SystemClock.elapsedRealtime();
+            event.put("latencyMs", now - mLastResponseAt);
+            mLastResponseAt = now;
+            mRequests++;
+            if (response.isSuccess()) {
+                mSynced = Math.min(mTotal, mSynced + mBatchSize);
+            }
+            if (mRequests >= mExpectedRequests) {
+                // All of this sync's requests are accounted-for.
+                closeSubscription();
+            }
+            event.put("request", mRequests);
+            event.put("synced", mSynced);
+            event.put("total", mTotal);
+        }
+        event.put("type", "progress");
+        event.put("success", response.isSuccess());
+        event.put("status", response.status);
+        event.put("responseBytes", (response.responseText != null) ? response.responseText.getBytes(StandardCharsets.UTF_8).length : 0);
+        send(event);
+    }
+
+    /**
+     * Records posted per HTTP request:  HttpConfig.maxBatchSize (all records when unlimited) with batchSync, else 1.
+     */
+    private int getBatchSize(int total) {
+        Object http = TSConfig.getInstance(mContext).toMap(false).get("http");
+        if (!(http instanceof Map) || !Boolean.TRUE.equals(((Map) http).get("batchSync"))) {
+            return 1;
+        }
+        Object maxBatchSize = ((Map) http).get("maxBatchSize");
+        int size = (maxBatchSize instanceof Number) ? ((Number) maxBatchSize).intValue() : -1;
+        return (size > 0) ? size : Math.max(1, total);
+    }
+
+    private void complete(List<LocationModel> records) {
+        Map<String, Object> event = new HashMap<>();
+        synchronized (this) {
+            // Always remove the HTTP listener, even when cancelled.
+            closeSubscription();
+            if (!mActive.getAndSet(false)) return;
+            event.put("requests", mRequests);
+            event.put("total", mTotal);
+        }
+        event.put("type", "complete");
+        event.put("synced", records.size());
+        if (mEcho) {
+            JSONArray rs = new JSONArray();
+            for (LocationModel record : records) {
+                rs.put(record.json);
+            }
+            try {
+                event.put("locations", BackgroundGeolocationModule.toList(rs));
+            } catch (JSONException e) {
+                sendError(e.getMessage());
+                sendEndOfStream();
+                return;
+            }
+        }
+        send(event);
+        sendEndOfStream();
+    }
+
+    private void fail(String error) {
+        synchronized (this) {
+            // Always remove the HTTP listener, even when cancelled.
+            closeSubscription();
+            if (!mActive.getAndSet(false)) return;
+        }
+        sendError(error);
+        sendEndOfStream();
+    }
+
+    private synchronized void closeSubscription() {
+        try {
+            if (mSubscription != null) {
+                mSubscription.close();
+                mSubscription = null;
+            }
+        } catch (Exception e) {
+            // Closed again by onCancel.
+        }
+    }
+}
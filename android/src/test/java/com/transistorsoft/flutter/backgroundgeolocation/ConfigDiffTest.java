@@ -0,0 +1,97 @@
+package com.transistorsoft.flutter.backgroundgeolocation;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ConfigDiffTest {
+
+    private static Map<String, Object> map(Object... entries) {
+        Map<String, Object> map = new HashMap<>();
+        for (int n = 0; n < entries.length; n += 2) {
+            map.put((String) entries[n], entries[n + 1]);
+        }
+        return map;
+    }
+
+    private static Map<String, Object> current() {
+        return map(
+                "geolocation", map("distanceFilter", 10.0, "desiredAccuracy", -1),
+                "http", map("url", "https://example.com/locations", "headers", map("X-Token", "abc")),
+                "logger", map("debug", false),
+                "extras", map("route", 1),
+                "schedule", new ArrayList<>(Arrays.asList("1-7 09:00-17:00"))
+        );
+    }
+
+    @Test
+    public void unchangedConfigIsEmpty() {
+        assertTrue(ConfigDiff.diff(current(), current()).isEmpty());
+    }
+
+    @Test
+    public void numbersAreComparedByValue() {
+        Map<String, Object> incoming = map("geolocation", map("distanceFilter", 10, "desiredAccuracy", -1.0));
+        assertTrue(ConfigDiff.diff(current(), incoming).isEmpty());
+    }
+
+    @Test
+    public void changedKeysPreserveTheIncomingGroups() {
+        Map<String, Object> incoming = map(
+                "geolocation", map("distanceFilter", 50, "desiredAccuracy", -1),
+                "logger", map("debug", false)
+        );
+        Map<String, Object> changed = ConfigDiff.diff(current(), incoming);
+        assertEquals(map("geolocation", map("distanceFilter", 50)), changed);
+    }
+
+    @Test
+    public void flatKeysAreComparedAgainstTheGroups() {
+        Map<String, Object> incoming = map("distanceFilter", 10, "debug", true);
+        assertEquals(map("debug", true), ConfigDiff.diff(current(), incoming));
+    }
+
+    @Test
+    public void groupKeysAreComparedAgainstFlatKeys() {
+        Map<String, Object> current = map("distanceFilter", 10, "stopTimeout", 5);
+        Map<String, Object> incoming = map("geolocation", map("distanceFilter", 10), "app", map("stopTimeout", 1));
+        assertEquals(map("app", map("stopTimeout", 1)), ConfigDiff.diff(current, incoming));
+    }
+
+    @Test
+    public void nestedValuesAreComparedAsAWhole() {
+        Map<String, Object> incoming = map(
+                "extras", map("route", 1.0),
+                "schedule", new ArrayList<>(Arrays.asList("1-7 09:00-17:00")),
+                "http", map("headers", map("X-Token", "abc"))
+        );
+        assertTrue(ConfigDiff.diff(current(), incoming).isEmpty());
+
+        incoming = map(
+                "extras", map("route", 1, "driver", 2),
+                "schedule", new ArrayList<>(Arrays.asList("1-7 09:00-18:00")),
+                "http", map("headers", map("X-Token", "def"))
+        );
+        Map<String, Object> changed = ConfigDiff.diff(current(), incoming);
+        assertEquals(incoming, changed);
+    }
+
+    @Test
+    public void unknownKeysAreChanged() {
+        Map<String, Object> incoming = map("reset", true, "geolocation", map("stationaryRadius", 25));
+        assertEquals(incoming, ConfigDiff.diff(current(), incoming));
+    }
+
+    @Test
+    public void nullDiffersFromAValue() {
+        Map<String, Object> incoming = map("extras", null);
+        assertEquals(incoming, ConfigDiff.diff(current(), incoming));
+        assertTrue(ConfigDiff.diff(map("extras", null), incoming).isEmpty());
+    }
+}
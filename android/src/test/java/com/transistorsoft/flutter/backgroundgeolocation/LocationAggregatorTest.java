@@ -0,0 +1,139 @@
+package com.transistorsoft.flutter.backgroundgeolocation;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class LocationAggregatorTest {
+    private static final long HOUR = 3600000L;
+    private static final long DAY = 24 * HOUR;
+    // 2024-01-01T00:00:00Z
+    private static final long ORIGIN = 1704067200000L;
+    // Degrees of latitude per meter.
+    private static final double METER = 1.0 / 111195.0;
+
+    private TimeZone mTimeZone;
+
+    @Before
+    public void setUp() {
+        // Buckets are aligned in the device's time zone.
+        mTimeZone = TimeZone.getDefault();
+        TimeZone.setDefault(TimeZone.getTimeZone("UTC"));
+    }
+
+    @After
+    public void tearDown() {
+        TimeZone.setDefault(mTimeZone);
+    }
+
+    private static LocationRecords.Record record(long timestamp, double meters, double speed, boolean isMoving) throws JSONException {
+        LocationRecords.Record record = LocationRecordsTest.record(timestamp, "uuid-" + timestamp, meters * METER, 0);
+        record.json.getJSONObject("coords").put("speed", speed);
+        record.json.put("is_moving", isMoving);
+        return record;
+    }
+
+    @Test
+    public void hourBuckets() throws JSONException {
+        List<LocationRecords.Record> records = new ArrayList<>();
+        records.add(record(ORIGIN + 60000, 0, 1, true));
+        records.add(record(ORIGIN + 120000, 100, 5, true));
+        records.add(record(ORIGIN + 180000, 150, 2, false));
+        // The segment into the next hour is attributed to the later record's bucket.
+        records.add(record(ORIGIN + HOUR + 60000, 150, 0, true));
+        records.add(record(ORIGIN + HOUR + 120000, 250, 3, true));
+
+        List<Map<String, Object>> rows = LocationAggregator.aggregate(records, LocationAggregator.BUCKET_HOUR);
+        assertEquals(2, rows.size());
+
+        Map<String, Object> first = rows.get(0);
+        assertEquals(ORIGIN, first.get("start"));
+        assertEquals(ORIGIN + HOUR, first.get("end"));
+        assertEquals(3, first.get("count"));
+        assertEquals(150, (double) first.get("distance"), 0.1);
+        // Only the segment between two moving records counts as moving time.
+        assertEquals(60000L, first.get("movingTime"));
+        assertEquals(1, first.get("stops"));
+        assertEquals(5, (double) first.get("maxSpeed"), 0);
+
+        Map<String, Object> second = rows.get(1);
+        assertEquals(ORIGIN + HOUR, second.get("start"));
+        assertEquals(2, second.get("count"));
+        assertEquals(100, (double) second.get("distance"), 0.1);
+        assertEquals(60000L, second.get("movingTime"));
+        assertEquals(0, second.get("stops"));
+    }
+
+    @Test
+    public void emptyBucketsAreOmitted() throws JSONException {
+        List<LocationRecords.Record> records = new ArrayList<>();
+        records.add(record(ORIGIN, 0, 0, false));
+        records.add(record(ORIGIN + (3 * HOUR), 0, 0, false));
+
+        List<Map<String, Object>> rows = LocationAggregator.aggregate(records, LocationAggregator.BUCKET_HOUR);
+        assertEquals(2, rows.size());
+        assertEquals(ORIGIN + (3 * HOUR), rows.get(1).get("start"));
+    }
+
+    @Test
+    public void dayBuckets() throws JSONException {
+        List<LocationRecords.Record> records = new ArrayList<>();
+        records.add(record(ORIGIN + HOUR, 0, 0, false));
+        records.add(record(ORIGIN + (23 * HOUR), 0, 0, false));
+        records.add(record(ORIGIN + DAY, 0, 0, false));
+
+        List<Map<String, Object>> rows = LocationAggregator.aggregate(records, LocationAggregator.BUCKET_DAY);
+        assertEquals(2, rows.size());
+        assertEquals(ORIGIN, rows.get(0).get("start"));
+        assertEquals(ORIGIN + DAY, rows.get(0).get("end"));
+        assertEquals(2, rows.get(0).get("count"));
+        assertEquals(ORIGIN + DAY, rows.get(1).get("start"));
+        assertEquals(1, rows.get(1).get("count"));
+    }
+
+    @Test
+    public void recordsWithoutCoordinatesAreCounted() throws JSONException {
+        List<LocationRecords.Record> records = new ArrayList<>();
+        records.add(LocationRecordsTest.record(ORIGIN, "a"));
+        records.add(LocationRecordsTest.record(ORIGIN + 1000, "b"));
+
+        Map<String, Object> row = LocationAggregator.aggregate(records, LocationAggregator.BUCKET_HOUR).get(0);
+        assertEquals(2, row.get("count"));
+        assertEquals(0, (double) row.get("distance"), 0);
+        // No speed was recorded.
+        assertEquals(-1, (double) row.get("maxSpeed"), 0);
+    }
+
+    @Test
+    public void noRecordsHaveNoRows() {
+        assertTrue(LocationAggregator.aggregate(new ArrayList<LocationRecords.Record>(), LocationAggregator.BUCKET_DAY).isEmpty());
+    }
+
+    @Test
+    public void rejectsAnUnknownBucket() {
+        try {
+            LocationAggregator.aggregate(new ArrayList<LocationRecords.Record>(), "week");
+            fail("Expected IllegalArgumentException for an unknown bucket");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void haversine() {
+        // One degree of latitude.
+        assertEquals(111195, LocationAggregator.haversine(0, 0, 1, 0), 1);
+        assertEquals(0, LocationAggregator.haversine(45, -73, 45, -73), 0);
+    }
+}
@@ -0,0 +1,107 @@
+package com.transistorsoft.flutter.backgroundgeolocation;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Locale;
+
+/**
+ * Plain-JVM micro-benchmark of the conversion of location records for the platform-channel:  the List / Map path
+ * (BackgroundGeolocationModule#toList, walked again by the codec) against the single UTF-8 JSON byte[] of
+ * LocationRecords#toJsonBytes (getLocationsJson / syncJson), which the codec writes as-is.  The codec's own encoding
+ * is not included.
+ *
+ * Not a unit-test:  run its main() from the test classpath with a real org.json in place of the android.jar stubs.
+ * Use Android's implementation (eg: com.vaadin.external.google:android-json):  the upstream org.json library formats
+ * numbers far more slowly, which misrepresents the device.
+ *
+ *   java -cp build/intermediates/javac/debugUnitTest/classes:android-json.jar com.transistorsoft.flutter.backgroundgeolocation.LocationConversionBenchmark
+ */
+public class LocationConversionBenchmark {
+    private static final int[] SIZES = {100, 1000, 10000};
+    private static final int ROUNDS = 10;
+    // Records converted per measurement, spread over repeated calls for the smaller sizes.
+    private static final int RECORDS_PER_MEASUREMENT = 100000;
+
+    static JSONArray buildRecords(int count) throws JSONException {
+        JSONArray records = new JSONArray();
+        for (int n = 0; n < count; n++) {
+            JSONObject coords = new JSONObject();
+            coords.put("latitude", 45.5 + (n * 0.0001));
+            coords.put("longitude", -73.6 - (n * 0.0001));
+            coords.put("accuracy", 4.7);
+            coords.put("speed", 12.3);
+            coords.put("speed_accuracy", 0.5);
+            coords.put("heading", 271.2);
+            coords.put("heading_accuracy", 9.1);
+            coords.put("altitude", 41.0);
+            coords.put("altitude_accuracy", 3.2);
+            coords.put("ellipsoidal_altitude", 12.8);
+
+            JSONObject activity = new JSONObject();
+            activity.put("type", "in_vehicle");
+            activity.put("confidence", 100);
+
+            JSONObject battery = new JSONObject();
+            battery.put("level", 0.87);
+            battery.put("is_charging", false);
+
+            JSONObject record = new JSONObject();
+            record.put("uuid", String.format(Locale.US, "%08x-7d4c-4f1a-9a5b-3c2e1f0d9e8b", n));
+            record.put("timestamp", String.format(Locale.US, "2023-11-14T22:%02d:%02d.000Z", (n / 60) % 60, n % 60));
+            record.put("age", 12);
+            record.put("is_moving", true);
+            record.put("odometer", 1234.5 + n);
+            record.put("event", "");
+            record.put("coords", coords);
+            record.put("activity", activity);
+            record.put("battery", battery);
+            record.put("extras", new JSONObject());
+            records.put(record);
+        }
+        return records;
+    }
+
+    public static void main(String[] args) throws JSONException {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        for (int size : SIZES) {
+            JSONArray records = buildRecords(size);
+            double[] collections = null;
+            double[] bytes = null;
+            for (int round = 0; round < ROUNDS; round++) {
+                collections = measure(threads, records, RECORDS_PER_MEASUREMENT / size, false);
+                bytes = measure(threads, records, RECORDS_PER_MEASUREMENT / size, true);
+            }
+            System.out.println(String.format(Locale.US,
+                    "%6d records   toList: %8.3f ms %9.1f KB   toJsonBytes: %8.3f ms %9.1f KB",
+                    size, collections[0], collections[1], bytes[0], bytes[1]));
+        }
+    }
+
+    private static Object sSink;
+
+    // Returns {elapsed ms, allocated KB} per call (allocation is -1 when the JVM can't measure it).
+    private static double[] measure(ThreadMXBean threads, JSONArray records, int calls, boolean asBytes) throws JSONException {
+        long allocated = allocatedBytes(threads);
+        long start = System.nanoTime();
+        for (int n = 0; n < calls; n++) {
+            sSink = asBytes ? LocationRecords.toJsonBytes(records) : BackgroundGeolocationModule.toList(records);
+        }
+        long elapsed = System.nanoTime() - start;
+        long after = allocatedBytes(threads);
+        return new double[] {
+                elapsed / 1e6 / calls,
+                ((allocated >= 0) && (after >= 0)) ? (after - allocated) / 1024.0 / calls : -1
+        };
+    }
+
+    private static long allocatedBytes(ThreadMXBean threads) {
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+}
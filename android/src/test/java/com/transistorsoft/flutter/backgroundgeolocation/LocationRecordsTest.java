@@ -0,0 +1,260 @@
+package com.transistorsoft.flutter.backgroundgeolocation;
+
+import com.transistorsoft.locationmanager.data.SQLQuery;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class LocationRecordsTest {
+
+    static LocationRecords.Record record(long timestamp, String uuid) throws JSONException {
+        JSONObject json = new JSONObject();
+        json.put("timestamp", timestamp);
+        json.put("uuid", uuid);
+        return new LocationRecords.Record(json);
+    }
+
+    static LocationRecords.Record record(long timestamp, String uuid, double latitude, double longitude) throws JSONException {
+        LocationRecords.Record record = record(timestamp, uuid);
+        JSONObject coords = new JSONObject();
+        coords.put("latitude", latitude);
+        coords.put("longitude", longitude);
+        record.json.put("coords", coords);
+        return record;
+    }
+
+    // Records in shuffled order, several sharing a timestamp, so that paging must order by (timestamp, uuid).
+    private static List<LocationRecords.Record> buildRecords(int count) throws JSONException {
+        List<LocationRecords.Record> records = new ArrayList<>();
+        for (int n = 0; n < count; n++) {
+            records.add(record(1000 + (n / 3), String.format("uuid-%03d", n)));
+        }
+        Collections.shuffle(records, new Random(7));
+        return records;
+    }
+
+    private static List<String> collect(List<LocationRecords.Record> records, int limit, int order) throws JSONException {
+        List<String> uuids = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            LocationRecords.Page page = LocationRecords.page(records, limit, cursor, order);
+            for (int n = 0; n < page.records.length(); n++) {
+                uuids.add(page.records.getJSONObject(n).getString("uuid"));
+            }
+            cursor = page.cursor;
+            if (++pages > records.size() + 1) fail("Paging did not terminate");
+        } while (cursor != null);
+        return uuids;
+    }
+
+    @Test
+    public void pagesVisitEveryRecordOnceInAscendingOrder() throws JSONException {
+        List<LocationRecords.Record> records = buildRecords(25);
+        List<String> expected = new ArrayList<>();
+        for (int n = 0; n < 25; n++) expected.add(String.format("uuid-%03d", n));
+
+        assertEquals(expected, collect(records, 4, SQLQuery.ORDER_ASC));
+        assertEquals(expected, collect(records, 1, SQLQuery.ORDER_ASC));
+        assertEquals(expected, collect(records, 25, SQLQuery.ORDER_ASC));
+        assertEquals(expected, collect(records, 100, SQLQuery.ORDER_ASC));
+    }
+
+    @Test
+    public void pagesVisitEveryRecordOnceInDescendingOrder() throws JSONException {
+        List<LocationRecords.Record> records = buildRecords(25);
+        List<String> expected = new ArrayList<>();
+        for (int n = 24; n >= 0; n--) expected.add(String.format("uuid-%03d", n));
+
+        assertEquals(expected, collect(records, 4, SQLQuery.ORDER_DESC));
+        assertEquals(expected, collect(records, 7, SQLQuery.ORDER_DESC));
+    }
+
+    @Test
+    public void cursorIsTheLastRecordOfThePage() throws JSONException {
+        List<LocationRecords.Record> records = buildRecords(10);
+        LocationRecords.Page page = LocationRecords.page(records, 4, null, SQLQuery.ORDER_ASC);
+        assertEquals(4, page.records.length());
+        // uuid-003 is the 4th record:  timestamp 1000 + (3 / 3).
+        assertEquals("1001:uuid-003", page.cursor);
+
+        page = LocationRecords.page(records, 4, page.cursor, SQLQuery.ORDER_ASC);
+        assertEquals("uuid-004", page.records.getJSONObject(0).getString("uuid"));
+    }
+
+    @Test
+    public void lastPageHasNoCursor() throws JSONException {
+        List<LocationRecords.Record> records = buildRecords(8);
+        // A page holding exactly the remaining records:  no further page exists.
+        LocationRecords.Page page = LocationRecords.page(records, 8, null, SQLQuery.ORDER_ASC);
+        assertEquals(8, page.records.length());
+        assertNull(page.cursor);
+
+        page = LocationRecords.page(records, 7, null, SQLQuery.ORDER_ASC);
+        assertNotNull(page.cursor);
+        page = LocationRecords.page(records, 7, page.cursor, SQLQuery.ORDER_ASC);
+        assertEquals(1, page.records.length());
+        assertNull(page.cursor);
+    }
+
+    @Test
+    public void cursorOfADeletedRecordResumesAfterIt() throws JSONException {
+        List<LocationRecords.Record> records = buildRecords(9);
+        String cursor = LocationRecords.page(records, 3, null, SQLQuery.ORDER_ASC).cursor;
+        assertEquals("1000:uuid-002", cursor);
+        // Destroy the cursor's record:  paging continues from its position rather than restarting.
+        for (int n = 0; n < records.size(); n++) {
+            if (records.get(n).uuid.equals("uuid-002")) records.remove(n);
+        }
+        LocationRecords.Page page = LocationRecords.page(records, 3, cursor, SQLQuery.ORDER_ASC);
+        assertEquals("uuid-003", page.records.getJSONObject(0).getString("uuid"));
+    }
+
+    @Test
+    public void emptyStoreHasOneEmptyPage() {
+        LocationRecords.Page page = LocationRecords.page(new ArrayList<LocationRecords.Record>(), 10, null, SQLQuery.ORDER_ASC);
+        assertEquals(0, page.records.length());
+        assertNull(page.cursor);
+    }
+
+    @Test
+    public void rejectsInvalidArguments() throws JSONException {
+        List<LocationRecords.Record> records = buildRecords(3);
+        assertInvalid(records, 0, null, SQLQuery.ORDER_ASC);
+        assertInvalid(records, -1, null, SQLQuery.ORDER_ASC);
+        assertInvalid(records, 10, null, 0);
+        assertInvalid(records, 10, "uuid-001", SQLQuery.ORDER_ASC);
+        assertInvalid(records, 10, ":uuid-001", SQLQuery.ORDER_ASC);
+        assertInvalid(records, 10, "abc:uuid-001", SQLQuery.ORDER_ASC);
+    }
+
+    private static Map<String, Object> bounds(double minLatitude, double minLongitude, double maxLatitude, double maxLongitude) {
+        Map<String, Object> bounds = new HashMap<>();
+        bounds.put("minLatitude", minLatitude);
+        bounds.put("minLongitude", minLongitude);
+        bounds.put("maxLatitude", maxLatitude);
+        bounds.put("maxLongitude", maxLongitude);
+        return bounds;
+    }
+
+    @Test
+    public void queryFromMap() {
+        Map<String, Object> params = new HashMap<>();
+        params.put("start", 1000);
+        params.put("end", 2000L);
+        params.put("limit", 5);
+        params.put("order", SQLQuery.ORDER_DESC);
+        params.put("simplify", 10);
+        params.put("bounds", bounds(45, -74, 46, -73));
+        LocationRecords.Query query = LocationRecords.Query.fromMap(params);
+        assertEquals(Long.valueOf(1000), query.start);
+        assertEquals(Long.valueOf(2000), query.end);
+        assertEquals(5, query.limit);
+        assertEquals(SQLQuery.ORDER_DESC, query.order);
+        assertEquals(10, query.simplify, 0);
+        assertArrayEquals(new double[] {45, -74, 46, -73}, query.bounds, 0);
+
+        query = LocationRecords.Query.fromMap(new HashMap<String, Object>());
+        assertNull(query.start);
+        assertNull(query.end);
+        assertEquals(-1, query.limit);
+        assertEquals(SQLQuery.ORDER_ASC, query.order);
+        assertNull(query.bounds);
+    }
+
+    @Test
+    public void queryFromMapRequiresEveryBound() {
+        Map<String, Object> bounds = bounds(45, -74, 46, -73);
+        bounds.remove("maxLongitude");
+        Map<String, Object> params = new HashMap<>();
+        params.put("bounds", bounds);
+        try {
+            LocationRecords.Query.fromMap(params);
+            fail("Expected IllegalArgumentException for incomplete bounds");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("maxLongitude"));
+        }
+    }
+
+    @Test
+    public void queryMatchesBounds() throws JSONException {
+        Map<String, Object> params = new HashMap<>();
+        params.put("bounds", bounds(45, -74, 46, -73));
+        LocationRecords.Query query = LocationRecords.Query.fromMap(params);
+        assertTrue(query.matches(record(0, "a", 45.5, -73.5)));
+        // Inclusive edges.
+        assertTrue(query.matches(record(0, "b", 45, -74)));
+        assertTrue(query.matches(record(0, "c", 46, -73)));
+        assertFalse(query.matches(record(0, "d", 44.9, -73.5)));
+        assertFalse(query.matches(record(0, "e", 45.5, -72.9)));
+        // Without coordinates, a record never matches a bounded query.
+        assertFalse(query.matches(record(0, "f")));
+    }
+
+    @Test
+    public void queryMatchesBoundsAcrossTheAntiMeridian() throws JSONException {
+        // minLongitude > maxLongitude:  the box spans 170 E to 170 W, through 180.
+        Map<String, Object> params = new HashMap<>();
+        params.put("bounds", bounds(-20, 170, -10, -170));
+        LocationRecords.Query query = LocationRecords.Query.fromMap(params);
+        assertTrue(query.matches(record(0, "a", -15, 175)));
+        assertTrue(query.matches(record(0, "b", -15, 180)));
+        assertTrue(query.matches(record(0, "c", -15, -180)));
+        assertTrue(query.matches(record(0, "d", -15, -175)));
+        assertTrue(query.matches(record(0, "e", -15, 170)));
+        assertTrue(query.matches(record(0, "f", -15, -170)));
+        assertFalse(query.matches(record(0, "g", -15, 0)));
+        assertFalse(query.matches(record(0, "h", -15, 169.9)));
+        assertFalse(query.matches(record(0, "i", -15, -169.9)));
+        assertFalse(query.matches(record(0, "j", -25, 175)));
+    }
+
+    @Test
+    public void queryMatchesTimeRangeInclusive() throws JSONException {
+        Map<String, Object> params = new HashMap<>();
+        params.put("start", 1000);
+        params.put("end", 2000);
+        LocationRecords.Query query = LocationRecords.Query.fromMap(params);
+        assertFalse(query.matches(record(999, "a")));
+        assertTrue(query.matches(record(1000, "b")));
+        assertTrue(query.matches(record(2000, "c")));
+        assertFalse(query.matches(record(2001, "d")));
+    }
+
+    @Test
+    public void queryOrdersAndLimits() throws JSONException {
+        List<LocationRecords.Record> records = buildRecords(9);
+        Map<String, Object> params = new HashMap<>();
+        params.put("order", SQLQuery.ORDER_DESC);
+        params.put("limit", 2);
+        List<LocationRecords.Record> selected = LocationRecords.query(records, LocationRecords.Query.fromMap(params));
+        assertEquals(2, selected.size());
+        assertEquals("uuid-008", selected.get(0).uuid);
+        assertEquals("uuid-007", selected.get(1).uuid);
+    }
+
+    private static void assertInvalid(List<LocationRecords.Record> records, int limit, String cursor, int order) {
+        try {
+            LocationRecords.page(records, limit, cursor, order);
+            fail("Expected IllegalArgumentException for limit: " + limit + ", cursor: " + cursor + ", order: " + order);
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.transistorsoft.flutter.backgroundgeolocation;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Plain-JVM micro-benchmark of method-call dispatch:  the former if / else chain of equalsIgnoreCase against the
+ * dispatch-table (HashMap keyed by lower-cased method name) of BackgroundGeolocationModule#onMethodCall.
+ *
+ * Not a unit-test:  run its main() from the test classpath, eg:
+ *
+ *   java -cp build/intermediates/javac/debugUnitTest/classes com.transistorsoft.flutter.backgroundgeolocation.MethodDispatchBenchmark
+ */
+public class MethodDispatchBenchmark {
+    // The method names in the order of the former if / else chain (and of #registerActions).
+    static final String[] METHODS = {
+            "ready", "getState", "start", "stop", "startGeofences", "startSchedule", "stopSchedule",
+            "startBackgroundTask", "finish", "reset", "setConfig", "patchConfig", "changePace", "getCurrentPosition",
+            "watchPosition", "stopWatchPosition", "getLocations", "insertLocation", "insertLocations",
+            "aggregateLocations", "getCount", "destroyLocations", "destroyLocation", "sync", "getOdometer",
+            "setOdometer", "addGeofence", "addGeofences", "removeGeofence", "removeGeofences", "getGeofences",
+            "getGeofence", "geofenceExists", "log", "getLog", "emailLog", "uploadLog", "destroyLog", "getSensors",
+            "isPowerSaveMode", "isIgnoringBatteryOptimizations", "requestSettings", "showSettings", "getDeviceInfo",
+            "playSound", "registerHeadlessTask", "getProviderState", "requestPermission",
+            "requestTemporaryFullAccuracy", "registerPlugin", "getTransistorToken", "destroyTransistorToken",
+            "getPluginMetrics", "setPluginMetricsLogInterval", "batch"
+    };
+
+    private static final int ITERATIONS = 2000000;
+    private static final int ROUNDS = 5;
+
+    private static final Map<String, Integer> TABLE = new HashMap<>();
+    static {
+        for (int n = 0; n < METHODS.length; n++) {
+            TABLE.put(METHODS[n].toLowerCase(Locale.US), n);
+        }
+    }
+
+    // Equivalent of the former if / else chain:  one equalsIgnoreCase per preceding branch.
+    static int chain(String method) {
+        for (int n = 0; n < METHODS.length; n++) {
+            if (METHODS[n].equalsIgnoreCase(method)) return n;
+        }
+        return -1;
+    }
+
+    static int table(String method) {
+        Integer index = TABLE.get(method.toLowerCase(Locale.US));
+        return (index != null) ? index : -1;
+    }
+
+    public static void main(String[] args) {
+        String[] probes = {"ready", "getLocations", "getTransistorToken", "destroyTransistorToken", "unknownMethod"};
+        for (String probe : probes) {
+            // Distinct String instances, as decoded from each method-call.
+            String[] calls = new String[64];
+            for (int n = 0; n < calls.length; n++) calls[n] = new String(probe);
+
+            double chain = 0;
+            double table = 0;
+            for (int round = 0; round < ROUNDS; round++) {
+                chain = measureChain(calls);
+                table = measureTable(calls);
+            }
+            System.out.println(String.format(Locale.US, "%-24s chain: %7.1f ns   table: %7.1f ns", probe, chain, table));
+        }
+    }
+
+    private static long sSink;
+
+    private static double measureChain(String[] calls) {
+        long start = System.nanoTime();
+        long sink = 0;
+        for (int n = 0; n < ITERATIONS; n++) {
+            sink += chain(calls[n & 63]);
+        }
+        sSink += sink;
+        return (System.nanoTime() - start) / (double) ITERATIONS;
+    }
+
+    private static double measureTable(String[] calls) {
+        long start = System.nanoTime();
+        long sink = 0;
+        for (int n = 0; n < ITERATIONS; n++) {
+            sink += table(calls[n & 63]);
+        }
+        sSink += sink;
+        return (System.nanoTime() - start) / (double) ITERATIONS;
+    }
+}
@@ -0,0 +1,125 @@
+package com.transistorsoft.flutter.backgroundgeolocation;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TrajectorySimplifierTest {
+    // Degrees of latitude per meter.
+    private static final double METER = 1.0 / 111195.0;
+
+    private static boolean[] simplify(double[][] points, double tolerance) {
+        double[] latitude = new double[points.length];
+        double[] longitude = new double[points.length];
+        for (int n = 0; n < points.length; n++) {
+            latitude[n] = points[n][0];
+            longitude[n] = points[n][1];
+        }
+        return TrajectorySimplifier.simplify(latitude, longitude, tolerance);
+    }
+
+    @Test
+    public void distanceToSegment() {
+        // 5m north of a segment along the equator.
+        assertEquals(5, TrajectorySimplifier.distanceToSegment(5 * METER, 0.0005, 0, 0, 0, 0.001), 0.01);
+        // Beyond the segment's end, the distance is to the end-point.
+        assertEquals(10, TrajectorySimplifier.distanceToSegment(0, -10 * METER, 0, 0, 0, 0.001), 0.01);
+        // A degenerate segment.
+        assertEquals(10, TrajectorySimplifier.distanceToSegment(10 * METER, 0, 0, 0, 0, 0), 0.01);
+    }
+
+    @Test
+    public void distanceToSegmentAcrossTheAntiMeridian() {
+        // A segment from 179.999 E to 179.999 W is short, not half-way around the world.
+        double distance = TrajectorySimplifier.distanceToSegment(5 * METER, 180, 0, 179.999, 0, -179.999);
+        assertEquals(5, distance, 0.01);
+    }
+
+    @Test
+    public void straightLineKeepsOnlyItsEnds() {
+        double[][] points = new double[10][];
+        for (int n = 0; n < points.length; n++) points[n] = new double[] {n * 0.0001, n * 0.0001};
+        boolean[] keep = simplify(points, 1);
+        assertTrue(keep[0]);
+        assertTrue(keep[9]);
+        for (int n = 1; n < 9; n++) assertFalse("point " + n, keep[n]);
+    }
+
+    @Test
+    public void keepsPointsBeyondTolerance() {
+        double[][] points = {
+                {0, 0},
+                {11 * METER, 0.0005},  // within 5m of the line to the corner
+                {20 * METER, 0.001},   // the corner
+                {11 * METER, 0.0015},
+                {0, 0.002}
+        };
+        boolean[] keep = simplify(points, 5);
+        assertTrue(keep[0]);
+        assertFalse(keep[1]);
+        assertTrue(keep[2]);
+        assertFalse(keep[3]);
+        assertTrue(keep[4]);
+
+        // A tolerance above the corner's deviation discards it.
+        keep = simplify(points, 25);
+        assertFalse(keep[2]);
+    }
+
+    @Test
+    public void alwaysKeepsPointsWithoutCoordinates() {
+        double[][] points = {{0, 0}, {Double.NaN, Double.NaN}, {0, 0.001}, {0, 0.002}};
+        boolean[] keep = simplify(points, 5);
+        assertTrue(keep[1]);
+        assertFalse(keep[2]);
+    }
+
+    @Test
+    public void keepsEverythingWithoutTolerance() {
+        double[][] points = {{0, 0}, {0, 0.001}, {0, 0.002}};
+        for (boolean keep : simplify(points, 0)) assertTrue(keep);
+        for (boolean keep : simplify(points, Double.NaN)) assertTrue(keep);
+    }
+
+    @Test
+    public void windowRetainsTheFirstPointAndThoseBeyondTolerance() {
+        TrajectorySimplifier.Window window = new TrajectorySimplifier.Window(5, 100);
+        List<Object> retained = new ArrayList<>();
+        double[][] points = {
+                {0, 0},
+                {0, 0.0005},
+                {0, 0.001},            // the corner
+                {20 * METER, 0.001},
+                {40 * METER, 0.001}
+        };
+        for (int n = 0; n < points.length; n++) {
+            Object payload = window.offer(points[n][0], points[n][1], n);
+            if (payload != null) retained.add(payload);
+        }
+        assertEquals(0, retained.get(0));
+        assertEquals(2, retained.get(1));
+        assertEquals(2, retained.size());
+        // The last point is held until #flush.
+        assertTrue(window.isHolding());
+        assertEquals(4, window.flush());
+        assertFalse(window.isHolding());
+        assertNull(window.flush());
+    }
+
+    @Test
+    public void windowRetainsTheHeldPointWhenFull() {
+        TrajectorySimplifier.Window window = new TrajectorySimplifier.Window(5, 3);
+        assertEquals(0, window.offer(0, 0, 0));
+        assertNull(window.offer(0, 0.0001, 1));
+        assertNull(window.offer(0, 0.0002, 2));
+        // A straight line:  only the window's size forces the held point out.
+        assertEquals(3, window.offer(0, 0.0003, 3));
+        assertFalse(window.isHolding());
+    }
+}
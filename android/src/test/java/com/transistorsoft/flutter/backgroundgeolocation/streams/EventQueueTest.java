@@ -0,0 +1,202 @@
+package com.transistorsoft.flutter.backgroundgeolocation.streams;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import io.flutter.plugin.common.EventChannel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class EventQueueTest {
+
+    // Records what reaches the EventSink:  errors as "error:<code>" and end-of-stream as "end".
+    private static class Sink implements EventChannel.EventSink {
+        final List<Object> events = new ArrayList<>();
+        @Override public void success(Object event) { events.add(event); }
+        @Override public void error(String code, String message, Object details) { events.add("error:" + code); }
+        @Override public void endOfStream() { events.add("end"); }
+    }
+
+    // No main-thread under the JVM:  drains are counted and run by the test.
+    private static class TestQueue extends EventQueue {
+        boolean mainThread = false;
+        int drains = 0;
+        @Override boolean isMainThread() { return mainThread; }
+        @Override void scheduleDrain() { drains++; }
+    }
+
+    private TestQueue mQueue;
+    private Sink mSink;
+
+    @Before
+    public void setUp() {
+        mQueue = new TestQueue();
+        mSink = new Sink();
+        mQueue.setSink(mSink);
+    }
+
+    private void offer(Object... events) {
+        for (Object event : events) mQueue.offer(event);
+    }
+
+    // Run the scheduled drains until the queue is empty, as the main-thread would.
+    private void drain() {
+        int guard = 0;
+        while (mQueue.drains > 0) {
+            mQueue.drains--;
+            mQueue.run();
+            assertTrue("Drain did not terminate", ++guard < 1000);
+        }
+    }
+
+    @Test
+    public void overflowFromString() {
+        assertEquals(EventQueue.Overflow.DROP_NEWEST, EventQueue.Overflow.fromString("drop-newest"));
+        assertEquals(EventQueue.Overflow.COALESCE_LATEST, EventQueue.Overflow.fromString("COALESCE-LATEST"));
+        assertEquals(EventQueue.Overflow.DROP_OLDEST, EventQueue.Overflow.fromString("drop-oldest"));
+        assertEquals(EventQueue.Overflow.DROP_OLDEST, EventQueue.Overflow.fromString(null));
+        assertEquals(EventQueue.Overflow.DROP_OLDEST, EventQueue.Overflow.fromString("unknown"));
+    }
+
+    @Test
+    public void dropOldest() {
+        mQueue.configure(3, EventQueue.Overflow.DROP_OLDEST);
+        offer(1, 2, 3, 4, 5);
+        assertEquals(3, mQueue.size());
+        assertEquals(2, mQueue.getDroppedCount());
+        drain();
+        assertEquals(Arrays.<Object>asList(3, 4, 5), mSink.events);
+        assertEquals(3, mQueue.getDeliveredCount());
+    }
+
+    @Test
+    public void dropNewest() {
+        mQueue.configure(3, EventQueue.Overflow.DROP_NEWEST);
+        offer(1, 2, 3, 4, 5);
+        assertEquals(2, mQueue.getDroppedCount());
+        drain();
+        assertEquals(Arrays.<Object>asList(1, 2, 3), mSink.events);
+    }
+
+    @Test
+    public void coalesceLatest() {
+        mQueue.configure(3, EventQueue.Overflow.COALESCE_LATEST);
+        offer(1, 2, 3, 4, 5);
+        assertEquals(2, mQueue.getCoalescedCount());
+        assertEquals(0, mQueue.getDroppedCount());
+        drain();
+        // The newest event replaces the last one pending.
+        assertEquals(Arrays.<Object>asList(1, 2, 5), mSink.events);
+    }
+
+    @Test
+    public void controlEventsAreNeverDropped() {
+        mQueue.configure(2, EventQueue.Overflow.DROP_OLDEST);
+        mQueue.offer(1);
+        mQueue.offerError("failed");
+        // Full:  the oldest data event is dropped rather than the error.
+        offer(2, 3);
+        // Full:  end-of-stream is queued regardless.
+        mQueue.offerEndOfStream();
+        drain();
+        assertEquals(Arrays.<Object>asList("error:failed", 3, "end"), mSink.events);
+        assertEquals(2, mQueue.getDroppedCount());
+    }
+
+    @Test
+    public void controlEventsAreNeverCoalesced() {
+        mQueue.configure(2, EventQueue.Overflow.COALESCE_LATEST);
+        mQueue.offer(1);
+        mQueue.offerError("failed");
+        offer(2);
+        drain();
+        assertEquals(Arrays.<Object>asList("error:failed", 2), mSink.events);
+        assertEquals(1, mQueue.getCoalescedCount());
+    }
+
+    @Test
+    public void queueOfOnlyControlEventsAcceptsData() {
+        mQueue.configure(1, EventQueue.Overflow.DROP_OLDEST);
+        mQueue.offerError("failed");
+        mQueue.offer(1);
+        assertEquals(2, mQueue.size());
+        assertEquals(0, mQueue.getDroppedCount());
+        drain();
+        assertEquals(Arrays.<Object>asList("error:failed", 1), mSink.events);
+    }
+
+    @Test
+    public void drainsInSlices() {
+        mQueue.configure(100, EventQueue.Overflow.DROP_OLDEST);
+        for (int n = 0; n < 40; n++) mQueue.offer(n);
+        // A single drain is scheduled however many events are queued.
+        assertEquals(1, mQueue.drains);
+
+        mQueue.drains--;
+        mQueue.run();
+        assertEquals(16, mSink.events.size());
+        // Yielded the main-thread with events remaining.
+        assertEquals(1, mQueue.drains);
+
+        drain();
+        assertEquals(40, mSink.events.size());
+        for (int n = 0; n < 40; n++) assertEquals(n, mSink.events.get(n));
+        assertEquals(0, mQueue.size());
+    }
+
+    @Test
+    public void fastPathOnTheMainThread() {
+        mQueue.mainThread = true;
+        mQueue.offer(1);
+        assertEquals(Arrays.<Object>asList(1), mSink.events);
+        assertEquals(0, mQueue.drains);
+    }
+
+    @Test
+    public void fastPathPreservesOrder() {
+        mQueue.offer(1);
+        // An event offered on the main-thread while another is pending is queued behind it.
+        mQueue.mainThread = true;
+        mQueue.offer(2);
+        assertTrue(mSink.events.isEmpty());
+        drain();
+        mQueue.offer(3);
+        assertEquals(Arrays.<Object>asList(1, 2, 3), mSink.events);
+    }
+
+    @Test
+    public void cancelClearsThePendingEvents() {
+        offer(1, 2);
+        mQueue.setSink(null);
+        assertEquals(0, mQueue.size());
+        mQueue.offer(3);
+        assertEquals(0, mQueue.size());
+        drain();
+        assertTrue(mSink.events.isEmpty());
+    }
+
+    @Test
+    public void drainListenerRunsOnceEmptied() {
+        final int[] drained = {0};
+        mQueue.setDrainListener(new Runnable() {
+            @Override public void run() { drained[0]++; }
+        });
+        for (int n = 0; n < 20; n++) mQueue.offer(n);
+        mQueue.drains--;
+        mQueue.run();
+        assertEquals(0, drained[0]);
+        drain();
+        assertEquals(1, drained[0]);
+
+        mQueue.mainThread = true;
+        mQueue.offer(20);
+        assertEquals(2, drained[0]);
+        assertFalse(mSink.events.isEmpty());
+    }
+}
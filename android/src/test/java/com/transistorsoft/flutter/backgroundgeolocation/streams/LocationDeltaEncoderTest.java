@@ -0,0 +1,154 @@
+package com.transistorsoft.flutter.backgroundgeolocation.streams;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+public class LocationDeltaEncoderTest {
+    // 2024-01-01T00:00:00Z
+    private static final long ORIGIN = 1704067200000L;
+
+    private static Map<String, Object> location(double latitude, double longitude, Object timestamp) {
+        Map<String, Object> coords = new HashMap<>();
+        coords.put("latitude", latitude);
+        coords.put("longitude", longitude);
+        coords.put("accuracy", 5.0);
+        Map<String, Object> location = new HashMap<>();
+        location.put("coords", coords);
+        location.put("timestamp", timestamp);
+        location.put("uuid", "uuid-" + timestamp);
+        location.put("is_moving", true);
+        return location;
+    }
+
+    private static String frameOf(Map<String, Object> frame) {
+        return (String) frame.get("frame");
+    }
+
+    @Test
+    public void firstFrameIsAKeyframe() {
+        LocationDeltaEncoder encoder = new LocationDeltaEncoder(10);
+        Map<String, Object> frame = encoder.encode(location(45.5, -73.6, ORIGIN), false);
+        assertEquals("keyframe", frameOf(frame));
+        assertEquals(455000000L, frame.get("latE7"));
+        assertEquals(-736000000L, frame.get("lngE7"));
+    }
+
+    @Test
+    public void keyframeEveryInterval() {
+        LocationDeltaEncoder encoder = new LocationDeltaEncoder(3);
+        String[] expected = {"keyframe", "delta", "delta", "keyframe", "delta", "delta", "keyframe"};
+        for (int n = 0; n < expected.length; n++) {
+            Map<String, Object> frame = encoder.encode(location(45.5 + (n * 0.001), -73.6, ORIGIN + (n * 1000)), false);
+            assertEquals("frame " + n, expected[n], frameOf(frame));
+        }
+    }
+
+    @Test
+    public void forcedKeyframe() {
+        LocationDeltaEncoder encoder = new LocationDeltaEncoder(10);
+        encoder.encode(location(45.5, -73.6, ORIGIN), false);
+        assertEquals("delta", frameOf(encoder.encode(location(45.5, -73.6, ORIGIN + 1000), false)));
+        assertEquals("keyframe", frameOf(encoder.encode(location(45.5, -73.6, ORIGIN + 2000), true)));
+        // The interval restarts from the forced keyframe.
+        assertEquals("delta", frameOf(encoder.encode(location(45.5, -73.6, ORIGIN + 3000), false)));
+    }
+
+    @Test
+    public void framesAreNumberedConsecutively() {
+        LocationDeltaEncoder encoder = new LocationDeltaEncoder(2);
+        long seq = (Long) encoder.encode(location(45.5, -73.6, ORIGIN), false).get("seq");
+        for (int n = 1; n < 5; n++) {
+            assertEquals(seq + n, encoder.encode(location(45.5, -73.6, ORIGIN + n), false).get("seq"));
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void deltaCarriesOnlyChangedValues() {
+        LocationDeltaEncoder encoder = new LocationDeltaEncoder(10);
+        encoder.encode(location(45.5, -73.6, ORIGIN), false);
+
+        Map<String, Object> next = location(45.5001, -73.6002, ORIGIN + 1500);
+        next.put("uuid", "uuid-next");
+        next.remove("is_moving");
+        ((Map<String, Object>) next.get("coords")).put("speed", 3.2);
+        Map<String, Object> frame = encoder.encode(next, false);
+
+        assertEquals("delta", frameOf(frame));
+        assertEquals(1000L, frame.get("dlat"));
+        assertEquals(-2000L, frame.get("dlng"));
+        assertEquals(1500L, frame.get("dt"));
+        Map<String, Object> changed = new HashMap<>();
+        changed.put("uuid", "uuid-next");
+        assertEquals(changed, frame.get("changed"));
+        assertEquals(Arrays.asList("is_moving"), frame.get("removed"));
+        Map<String, Object> coords = new HashMap<>();
+        coords.put("speed", 3.2);
+        assertEquals(coords, frame.get("coords"));
+        assertNull(frame.get("removedCoords"));
+    }
+
+    @Test
+    public void deltaOfAnIsoTimestamp() {
+        LocationDeltaEncoder encoder = new LocationDeltaEncoder(10);
+        encoder.encode(location(45.5, -73.6, "2024-01-01T00:00:00.000Z"), false);
+        Map<String, Object> frame = encoder.encode(location(45.5, -73.6, "2024-01-01T00:00:01.250Z"), false);
+        assertEquals("delta", frameOf(frame));
+        assertEquals(1250L, frame.get("dt"));
+    }
+
+    @Test
+    public void coordinatesAreQuantizedWithoutDrift() {
+        LocationDeltaEncoder encoder = new LocationDeltaEncoder(1000);
+        Map<String, Object> frame = encoder.encode(location(45.12345678, -73.98765432, ORIGIN), false);
+        assertEquals(451234568L, frame.get("latE7"));
+        assertEquals(-739876543L, frame.get("lngE7"));
+
+        // Each delta is taken from the previous quantized value, so summing them never accumulates rounding errors.
+        long latE7 = (Long) frame.get("latE7");
+        long lngE7 = (Long) frame.get("lngE7");
+        double latitude = 45.12345678;
+        double longitude = -73.98765432;
+        for (int n = 1; n <= 500; n++) {
+            latitude += 0.000000037;
+            longitude -= 0.000000061;
+            frame = encoder.encode(location(latitude, longitude, ORIGIN + n), false);
+            assertEquals("delta", frameOf(frame));
+            latE7 += (Long) frame.get("dlat");
+            lngE7 += (Long) frame.get("dlng");
+        }
+        assertEquals(Math.round(latitude * 1e7), latE7);
+        assertEquals(Math.round(longitude * 1e7), lngE7);
+    }
+
+    @Test
+    public void structuralChangesForceAKeyframe() {
+        LocationDeltaEncoder encoder = new LocationDeltaEncoder(10);
+        encoder.encode(location(45.5, -73.6, ORIGIN), false);
+        // The timestamp format changes from epoch to ISO.
+        assertEquals("keyframe", frameOf(encoder.encode(location(45.5, -73.6, "2024-01-01T00:00:01.000Z"), false)));
+
+        // The coords are lost.
+        Map<String, Object> location = location(45.5, -73.6, "2024-01-01T00:00:02.000Z");
+        location.remove("coords");
+        assertEquals("keyframe", frameOf(encoder.encode(location, false)));
+        assertFalse(encoder.encode(location(45.5, -73.6, "2024-01-01T00:00:03.000Z"), false).containsKey("dlat"));
+    }
+
+    @Test
+    public void encodingLeavesTheLocationUntouched() {
+        LocationDeltaEncoder encoder = new LocationDeltaEncoder(10);
+        encoder.encode(location(45.5, -73.6, ORIGIN), false);
+        Map<String, Object> location = location(45.6, -73.7, ORIGIN + 1000);
+        Map<String, Object> copy = location(45.6, -73.7, ORIGIN + 1000);
+        encoder.encode(location, false);
+        assertEquals(copy, location);
+    }
+}
@@ -19,6 +19,7 @@ library flt_background_geolocation;
 import 'dart:async';
 import 'dart:ui';
 import 'dart:convert';
+import 'dart:typed_data';
 import 'package:collection/collection.dart' show IterableExtension;
 
 import 'package:flutter/services.dart';
@@ -57,6 +58,16 @@ part 'models/transistor_authorization_token.dart';
 part 'models/authorization_event.dart';
 part 'models/permission_rationale.dart';
 part 'models/error.dart';
+part 'models/stream_options.dart';
+part 'models/location_message_codec.dart';
+part 'models/location_delta_decoder.dart';
+part 'models/location_page.dart';
+part 'models/location_export_event.dart';
+part 'models/location_query.dart';
+part 'models/location_columns.dart';
+part 'models/sync_progress_event.dart';
+part 'models/location_aggregate.dart';
+part 'models/add_geofences_result.dart';
 
 const _PLUGIN_PATH = "com.transistorsoft/flutter_background_geolocation";
 
@@ -0,0 +1,19 @@
+part of '../flutter_background_geolocation.dart';
+
+/// __(Android only)__ The result of [BackgroundGeolocation.addGeofencesChunked].
+///
+class AddGeofencesResult {
+  /// Number of geofences added.
+  int added = 0;
+
+  /// A `Map` for each geofence which failed to be added:  `index` (within the provided `List`), `identifier` and `error`.
+  List<Map> errors = [];
+
+  /// `true` when every geofence was added.
+  bool get success => errors.isEmpty;
+
+  /// String representation of `AddGeofencesResult` for `print` to logs.
+  String toString() {
+    return '[AddGeofencesResult added: $added, errors: ${errors.length}]';
+  }
+}
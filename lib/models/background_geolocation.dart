@@ -24,6 +24,8 @@ const _EVENT_CHANNEL_NOTIFICATIONACTION =
 const _EVENT_CHANNEL_AUTHORIZATION =
     "$_PLUGIN_PATH/events/" + Event.AUTHORIZATION;
 const _EVENT_CHANNEL_WATCH_POSITION = "$_PLUGIN_PATH/events/watchPosition";
+const _EVENT_CHANNEL_EXPORT = "$_PLUGIN_PATH/events/export";
+const _EVENT_CHANNEL_SYNC = "$_PLUGIN_PATH/events/sync";
 
 class _Subscription {
   final StreamSubscription<dynamic> subscription;
@@ -107,10 +109,10 @@ class _Subscription {
 ///
 class BackgroundGeolocation {
   // EventChannels
-  static const EventChannel _eventChannelMotionChange =
-      const EventChannel(_EVENT_CHANNEL_MOTIONCHANGE);
-  static const EventChannel _eventChannelLocation =
-      const EventChannel(_EVENT_CHANNEL_LOCATION);
+  static const EventChannel _eventChannelMotionChange = const EventChannel(
+      _EVENT_CHANNEL_MOTIONCHANGE, StandardMethodCodec(_LocationMessageCodec()));
+  static const EventChannel _eventChannelLocation = const EventChannel(
+      _EVENT_CHANNEL_LOCATION, StandardMethodCodec(_LocationMessageCodec()));
   static const EventChannel _eventChannelActivityChange =
       const EventChannel(_EVENT_CHANNEL_ACTIVITYCHANGE);
   static const EventChannel _eventChannelProviderChange =
@@ -135,8 +137,12 @@ class BackgroundGeolocation {
       const EventChannel(_EVENT_CHANNEL_NOTIFICATIONACTION);
   static const EventChannel _eventChannelAuthorization =
       const EventChannel(_EVENT_CHANNEL_AUTHORIZATION);
-  static const EventChannel _eventChannelWatchPosition =
-      const EventChannel(_EVENT_CHANNEL_WATCH_POSITION);
+  static const EventChannel _eventChannelWatchPosition = const EventChannel(
+      _EVENT_CHANNEL_WATCH_POSITION, StandardMethodCodec(_LocationMessageCodec()));
+  static const EventChannel _eventChannelExport =
+      const EventChannel(_EVENT_CHANNEL_EXPORT);
+  static const EventChannel _eventChannelSync =
+      const EventChannel(_EVENT_CHANNEL_SYNC);
 
   // Event Subscriptions
   static List<_Subscription> _subscriptions = [];
@@ -159,14 +165,36 @@ class BackgroundGeolocation {
   // ignore: unused_field
   static Stream<Location>? _eventsWatchPosition;
 
+  // Native delivery options for each event-stream.  See [setStreamOptions].
+  static final Map<String, StreamOptions> _streamOptions = {};
+
+  // The last state received from [state] and its native version (Android only).
+  static Map? _stateCache;
+  static int? _stateVersion;
+
   /// Return the current [State] of the plugin, including all [Config] parameters.
   ///
+  /// __Android:__ the native plugin caches its state snapshot and versions it.  When the state hasn't changed since
+  /// the last call, the native reply is a small "not modified" message and the previously received state is re-used.
+  ///
   /// ```dart
   /// State state = await BackgroundGeolocation.state();
   ///
   static Future<State> get state async {
-    Map state = (await _methodChannel.invokeMapMethod('getState'))!;
-    return State(state);
+    Map response = (await _methodChannel
+        .invokeMapMethod('getState', {'version': _stateVersion ?? -1}))!;
+    if (response['stateVersion'] is int) {
+      if ((response['notModified'] == true) && (_stateCache != null)) {
+        return State(Map.of(_stateCache!));
+      }
+      if (response['state'] is Map) {
+        _stateVersion = response['stateVersion'];
+        _stateCache = response['state'];
+        return State(Map.of(_stateCache!));
+      }
+    }
+    // Un-versioned reply (eg: iOS).
+    return State(response);
   }
 
   ///
@@ -258,6 +286,24 @@ class BackgroundGeolocation {
     return State(state);
   }
 
+  /// __(Android only)__ Apply only those [Config] values which differ from the current configuration.
+  ///
+  /// Unlike [setConfig], the native plugin compares the provided [Config] against the current configuration,
+  /// applies only the changed keys and returns only those keys (rather than the complete [State]).  When nothing has
+  /// changed, the configuration isn't touched at all.  Suited to frequent, small changes.
+  ///
+  /// ```dart
+  /// // Adjust distanceFilter with speed.
+  /// Map changed = await BackgroundGeolocation.patchConfig(Config(
+  ///   geolocation: GeoConfig(distanceFilter: (speed > 20) ? 50 : 10)
+  /// ));
+  /// print('[patchConfig] changed: $changed');
+  /// ```
+  ///
+  static Future<Map> patchConfig(Config config) async {
+    return (await _methodChannel.invokeMapMethod('patchConfig', config.toMap()))!;
+  }
+
   /// Resets the plugin configuration to documented default-values.
   ///
   /// If an optional [Config] is provided, it will be applied *after* the configuration reset.
@@ -598,6 +644,163 @@ class BackgroundGeolocation {
     return (await _methodChannel.invokeListMethod('getLocations'))!;
   }
 
+  /// __(Android only)__ Retrieve the locations stored in the plugin's SQLite database which match a [LocationQuery]
+  /// (time-range, bounding-box, order and limit).  The query is evaluated natively:  only the matching records are sent
+  /// across the platform-channel.
+  ///
+  /// ## Example
+  ///
+  /// ```dart
+  /// List locations = await BackgroundGeolocation.getLocations(LocationQuery(
+  ///   start: DateTime.now().subtract(Duration(days: 1)),
+  ///   order: SQLQuery.ORDER_DESC,
+  ///   limit: 100
+  /// ));
+  /// ```
+  ///
+  static Future<List> getLocations(LocationQuery query) async {
+    return (await _methodChannel
+        .invokeListMethod('getLocations', {'query': query.toMap()}))!;
+  }
+
+  /// __(Android only)__ Retrieve the locations stored in the plugin's SQLite database as primitive [LocationColumns]
+  /// (latitude, longitude, timestamp, accuracy, speed) ordered by `timestamp`, optionally restricted by a
+  /// [LocationQuery].
+  ///
+  /// The columns are packed natively and transferred as typed-data rather than a `Map` per record.
+  ///
+  /// ## Example
+  ///
+  /// ```dart
+  /// LocationColumns track = await BackgroundGeolocation.getLocationColumns(LocationQuery(
+  ///   start: DateTime.now().subtract(Duration(days: 1))
+  /// ));
+  /// print('[getLocationColumns] ${track.length} points');
+  /// ```
+  ///
+  static Future<LocationColumns> getLocationColumns(
+      [LocationQuery? query]) async {
+    Map<String, dynamic> args = {'format': 'columns'};
+    if (query != null) args['query'] = query.toMap();
+    Map data = (await _methodChannel.invokeMapMethod('getLocations', args))!;
+    return LocationColumns(data);
+  }
+
+  /// __(Android only)__ Summarize the locations stored in the plugin's SQLite database per hour or day (see
+  /// [LocationAggregate]):  distance, moving time, stops and max speed, optionally restricted by a [LocationQuery].
+  ///
+  /// The summary is computed natively in a single pass;  only one row per non-empty bucket is returned.
+  ///
+  /// ## Example
+  ///
+  /// ```dart
+  /// List<LocationAggregate> days = await BackgroundGeolocation.aggregateLocations(
+  ///   bucket: LocationAggregate.BUCKET_DAY,
+  ///   query: LocationQuery(start: DateTime.now().subtract(Duration(days: 7)))
+  /// );
+  /// days.forEach((LocationAggregate day) {
+  ///   print('${day.start}: ${day.distance}m, ${day.movingTime}, ${day.stops} stops');
+  /// });
+  /// ```
+  ///
+  static Future<List<LocationAggregate>> aggregateLocations(
+      {String bucket = LocationAggregate.BUCKET_DAY,
+      LocationQuery? query}) async {
+    Map<String, dynamic> args = {'bucket': bucket};
+    if (query != null) args['query'] = query.toMap();
+    List rows = (await _methodChannel.invokeListMethod(
+        'aggregateLocations', args))!;
+    return rows.map((dynamic row) => LocationAggregate(row)).toList();
+  }
+
+  /// __(Android only)__ Retrieve one page of the locations stored in the plugin's SQLite database, ordered by `timestamp`.
+  ///
+  /// Unlike [locations], only the requested page is sent across the platform-channel, so memory in Dart is bounded
+  /// by [limit].  Natively, however, each call still loads every record to select the page:  paging through a large
+  /// database costs more in total than a single call to [locations].  Provide the [LocationPage.cursor] of the
+  /// previous page to fetch the following one.
+  ///
+  /// - `limit`:  maximum number of records in the page (default `100`).  Must be greater than `0`.
+  /// - `cursor`:  [LocationPage.cursor] of the previous page;  omit for the first page.
+  /// - `order`:  [SQLQuery.ORDER_ASC] (default) or [SQLQuery.ORDER_DESC].
+  ///
+  /// ## Example
+  ///
+  /// ```dart
+  /// LocationPage page = await BackgroundGeolocation.getLocationsPage(limit: 500);
+  /// while (true) {
+  ///   print('[getLocationsPage] ${page.locations.length} locations');
+  ///   if (!page.hasMore) break;
+  ///   page = await BackgroundGeolocation.getLocationsPage(limit: 500, cursor: page.cursor);
+  /// }
+  /// ```
+  ///
+  static Future<LocationPage> getLocationsPage(
+      {int limit = 100,
+      String? cursor,
+      int order = SQLQuery.ORDER_ASC}) async {
+    Map data = (await _methodChannel.invokeMapMethod('getLocations',
+        {'limit': limit, 'cursor': cursor, 'order': order}))!;
+    return LocationPage(data);
+  }
+
+  /// __(Android only)__ Export all locations stored in the plugin's SQLite database as a stream of chunks.
+  ///
+  /// Records are converted and sent across the platform-channel [chunkSize] at a time.  Natively, each chunk is
+  /// converted only after the previous one has been posted to the platform-channel, so only one converted chunk
+  /// exists at a time regardless of the size of the database.  There is no acknowledgement from Dart:  chunks not yet
+  /// processed by your listener are buffered by the stream.  Each chunk is a [LocationExportEvent] of type [LocationExportEvent.TYPE_CHUNK] with its progress;  a
+  /// final [LocationExportEvent.TYPE_COMPLETE] event is emitted before the stream closes.
+  ///
+  /// Cancel the subscription to cancel the export.  Only one export may be active at a time.
+  ///
+  /// ## Example
+  ///
+  /// ```dart
+  /// BackgroundGeolocation.exportLocations(chunkSize: 500).listen((LocationExportEvent event) {
+  ///   if (event.isComplete) {
+  ///     print('[exportLocations] complete: ${event.total} records');
+  ///   } else {
+  ///     file.writeAsStringSync(jsonEncode(event.locations), mode: FileMode.append);
+  ///     print('[exportLocations] ${(event.progress * 100).round()}%');
+  ///   }
+  /// });
+  /// ```
+  ///
+  static Stream<LocationExportEvent> exportLocations({int chunkSize = 500}) {
+    return _eventChannelExport
+        .receiveBroadcastStream({'chunkSize': chunkSize})
+        .map((dynamic event) => LocationExportEvent(event));
+  }
+
+  /// __(Android only)__ Retrieve the locations stored in the plugin's SQLite database as a single UTF-8 encoded JSON
+  /// Array:  all of them, or those matching the optional [LocationQuery].
+  ///
+  /// The records are serialized natively directly to bytes, skipping their conversion to platform-channel Maps, so
+  /// the UI isolate receives a single `Uint8List` rather than decoding a `Map` per record.  Use this form for
+  /// forwarding records unchanged (eg: writing to a file or an HTTP body), or decode them with [decodeLocations] off
+  /// the UI isolate.  Natively, JSON serialization costs more than the `Map` conversion of [locations]:  the benefit
+  /// is the work kept off the UI isolate.
+  ///
+  /// ## Example
+  ///
+  /// ```dart
+  /// Uint8List json = await BackgroundGeolocation.getLocationsJson();
+  /// List records = await compute(BackgroundGeolocation.decodeLocations, json);
+  /// ```
+  ///
+  static Future<Uint8List> getLocationsJson([LocationQuery? query]) async {
+    Map<String, dynamic> args = {'format': 'json'};
+    if (query != null) args['query'] = query.toMap();
+    return (await _methodChannel
+        .invokeMethod<Uint8List>('getLocations', args))!;
+  }
+
+  /// Decode the UTF-8 JSON records returned by [getLocationsJson] / [syncJson].
+  static List decodeLocations(Uint8List json) {
+    return jsonDecode(utf8.decode(json)) as List;
+  }
+
   /// Retrive the count of all locations current stored in the plugin's SQLite database.
   ///
   /// ## Example
@@ -611,16 +814,63 @@ class BackgroundGeolocation {
         as FutureOr<int>;
   }
 
+  /// __(Android only)__ Retrieve the count of the locations stored in the plugin's SQLite database which match a
+  /// [LocationQuery].
+  ///
+  /// ## Example
+  ///
+  /// ```dart
+  /// int count = await BackgroundGeolocation.getCount(LocationQuery(
+  ///   start: DateTime.now().subtract(Duration(hours: 1))
+  /// ));
+  /// ```
+  ///
+  static Future<int> getCount(LocationQuery query) async {
+    return (await _methodChannel
+        .invokeMethod<int>('getCount', {'query': query.toMap()})) as FutureOr<int>;
+  }
+
   /// Remove all records in plugin's SQLite database.
   ///
+  /// __(Android only)__ Provide an optional [LocationQuery] to remove only the matching records.
+  ///
   /// ## Example
   ///
   /// ```dart
   /// bool success = BackgroundGeolocation.destroyLocations();
+  ///
+  /// // Remove only records older than 7 days.
+  /// BackgroundGeolocation.destroyLocations(LocationQuery(
+  ///   end: DateTime.now().subtract(Duration(days: 7))
+  /// ));
   /// ```
   ///
-  static Future<bool> destroyLocations() async {
-    return (await _methodChannel.invokeMethod<bool>('destroyLocations'))
+  static Future<bool> destroyLocations([LocationQuery? query]) async {
+    return (await _methodChannel.invokeMethod<bool>('destroyLocations',
+        (query != null) ? {'query': query.toMap()} : null)) as FutureOr<bool>;
+  }
+
+  /// __(Android only)__ Remove the records with the given [Location.uuid]s in a single platform-channel call, eg: after
+  /// your own uploader has confirmed receipt of a batch.  Provide an optional [LocationQuery] to further restrict
+  /// removal to the records which also match the query (eg: a time-range).  Unknown uuids are ignored.
+  ///
+  /// __NOTE:__ The removal is __not__ a transaction:  each record is destroyed individually.  Should any fail, the
+  /// returned `Future` fails with a [PlatformException] whose `details` is a `Map` `{destroyed, failed}` of uuids;  the
+  /// `destroyed` records remain destroyed.
+  ///
+  /// ## Example
+  ///
+  /// ```dart
+  /// List uploaded = await myUploader.upload(records);
+  /// await BackgroundGeolocation.destroyLocationsByUuid(
+  ///     uploaded.map((record) => record['uuid'] as String).toList());
+  /// ```
+  ///
+  static Future<bool> destroyLocationsByUuid(List<String> uuids,
+      [LocationQuery? query]) async {
+    Map<String, dynamic> args = {'uuids': uuids};
+    if (query != null) args['query'] = query.toMap();
+    return (await _methodChannel.invokeMethod<bool>('destroyLocations', args))
         as FutureOr<bool>;
   }
 
@@ -645,6 +895,27 @@ class BackgroundGeolocation {
         as FutureOr<String>;
   }
 
+  /// __(Android only)__ Insert a `List` of location records in a single platform-channel call, returning the `uuid`
+  /// of each inserted record, in the same order.
+  ///
+  /// Each record has the same form as provided to [insertLocation].  All records are validated before any is inserted.
+  ///
+  /// __NOTE:__ The insert is __not__ a transaction:  records are inserted one at a time, in order.  Should an insert
+  /// fail, no further records are inserted and the returned `Future` fails with a [PlatformException] whose `details`
+  /// is a `Map` `{index, uuids}`:  the index of the record which failed and the uuids of the records already inserted
+  /// (which remain, eg: to be removed with [destroyLocationsByUuid]).
+  ///
+  /// ## Example
+  ///
+  /// ```dart
+  /// List<String> uuids = await BackgroundGeolocation.insertLocations(records);
+  /// ```
+  ///
+  static Future<List<String>> insertLocations(List<Map> records) async {
+    return (await _methodChannel.invokeListMethod<String>(
+        'insertLocations', records))!;
+  }
+
   /// Manually execute upload configured [HttpConfig.url]
   ///
   /// If the plugin is configured for HTTP with an [HttpConfig.url] and [HttpConfig.autoSync] `false`, the [sync] method will initiate POSTing the locations currently stored in the native SQLite database to your configured [HttpConfig.url].
@@ -664,10 +935,55 @@ class BackgroundGeolocation {
   /// });
   ///
   /// ```
+  /// __(Android only)__ Provide `simplify` (a tolerance in meters) to simplify the *returned* records (Douglas-Peucker;
+  /// see [LocationQuery.simplify]).  All records are still uploaded.  Provide `echo: false` when you don't need the
+  /// synced records:  an empty `List` is returned.
+  ///
   ///  __NOTE:__ For more information, see the __HTTP Guide__ at [HttpEvent].
   ///
-  static Future<List> sync() async {
-    return (await _methodChannel.invokeListMethod('sync')) as FutureOr<List>;
+  static Future<List> sync({double? simplify, bool echo = true}) async {
+    Map<String, dynamic>? args;
+    if ((simplify != null) || !echo) {
+      args = {'echo': echo};
+      if (simplify != null) args['simplify'] = simplify;
+    }
+    return (await _methodChannel.invokeListMethod('sync', args))
+        as FutureOr<List>;
+  }
+
+  /// __(Android only)__ Execute a [sync], receiving a [SyncProgressEvent] for each HTTP request of the upload (records
+  /// synced, response size and latency) followed by a final [SyncProgressEvent.TYPE_COMPLETE] event, after which the
+  /// stream closes.  Sync failures are delivered as stream errors.
+  ///
+  /// The synced records are not returned unless `echo: true`.  Configure [HttpConfig.batchSync] and
+  /// [HttpConfig.maxBatchSize] to upload in chunks.  Cancelling the subscription stops the progress events;  the upload
+  /// continues.
+  ///
+  /// ## Example
+  ///
+  /// ```dart
+  /// BackgroundGeolocation.syncWithProgress().listen((SyncProgressEvent event) {
+  ///   print('[syncWithProgress] ${(event.progress * 100).round()}% ${event.latencyMs}ms');
+  /// }, onError: (error) {
+  ///   print('[syncWithProgress] FAILURE: $error');
+  /// });
+  /// ```
+  ///
+  static Stream<SyncProgressEvent> syncWithProgress({bool echo = false}) {
+    return _eventChannelSync
+        .receiveBroadcastStream({'echo': echo})
+        .map((dynamic event) => SyncProgressEvent(event));
+  }
+
+  /// __(Android only)__ Equivalent to [sync] but returns the synced records as a single UTF-8 encoded JSON Array,
+  /// serialized natively directly to bytes.  See [getLocationsJson].  `simplify` and `echo` are as for [sync];  with
+  /// `echo: false`, an empty JSON Array is returned.
+  ///
+  static Future<Uint8List> syncJson({double? simplify, bool echo = true}) async {
+    Map<String, dynamic> args = {'format': 'json', 'echo': echo};
+    if (simplify != null) args['simplify'] = simplify;
+    return (await _methodChannel
+        .invokeMethod<Uint8List>('sync', args))!;
   }
 
   /// Adds a [Geofence] to be monitored by the native Geofencing API.
@@ -741,6 +1057,75 @@ class BackgroundGeolocation {
         as FutureOr<bool>;
   }
 
+  /// __(Android only)__ Add a large `List` of [Geofence] in chunks of [chunkSize], reporting progress and per-geofence
+  /// errors rather than failing the whole operation.
+  ///
+  /// Each chunk is sent in its own platform-channel call and added in a single native operation;  the chunks are added
+  /// in sequence.  An invalid geofence is reported in [AddGeofencesResult.errors] without preventing the others of its
+  /// chunk from being added.  Should the native operation for a chunk fail, each valid geofence of that chunk is
+  /// reported with the error and the following chunks continue.
+  ///
+  /// [onProgress] is called after each chunk with the number of geofences processed and the total.
+  ///
+  /// ## Example
+  ///
+  /// ```dart
+  /// AddGeofencesResult result = await BackgroundGeolocation.addGeofencesChunked(geofences,
+  ///   chunkSize: 1000,
+  ///   onProgress: (int processed, int total) {
+  ///     print('[addGeofencesChunked] $processed / $total');
+  ///   }
+  /// );
+  /// result.errors.forEach((Map error) {
+  ///   print('[addGeofencesChunked] ${error['identifier']}: ${error['error']}');
+  /// });
+  /// ```
+  ///
+  static Future<AddGeofencesResult> addGeofencesChunked(
+      List<Geofence> geofences,
+      {int chunkSize = 500,
+      void Function(int processed, int total)? onProgress}) async {
+    AddGeofencesResult result = AddGeofencesResult();
+    int size = (chunkSize > 0) ? chunkSize : 500;
+    for (int offset = 0; offset < geofences.length; offset += size) {
+      int end = (offset + size < geofences.length)
+          ? offset + size
+          : geofences.length;
+      List<Map<String, dynamic>> chunk = geofences
+          .sublist(offset, end)
+          .map((Geofence geofence) => geofence.toMap())
+          .toList();
+      Map? response;
+      String? failure;
+      try {
+        response = await _methodChannel.invokeMapMethod(
+            'addGeofences', {'geofences': chunk, 'partial': true});
+      } on PlatformException catch (e) {
+        failure = e.code;
+        response = (e.details is Map) ? e.details : null;
+      }
+      List errors = (response?['errors'] as List?) ?? [];
+      for (Map error in errors) {
+        result.errors.add(Map.of(error)..['index'] = offset + (error['index'] as int));
+      }
+      if (failure != null) {
+        Set failed = errors.map((error) => error['index']).toSet();
+        for (int n = 0; n < chunk.length; n++) {
+          if (failed.contains(n)) continue;
+          result.errors.add({
+            'index': offset + n,
+            'identifier': chunk[n]['identifier'],
+            'error': failure
+          });
+        }
+      } else {
+        result.added += (response?['added'] as int?) ?? 0;
+      }
+      if (onProgress != null) onProgress(end, geofences.length);
+    }
+    return result;
+  }
+
   /// Returns `true` if the SDK already contains the [Geofence] in its database.
   ///
   /// ## Example
@@ -1066,6 +1451,63 @@ class BackgroundGeolocation {
     return completer.future as FutureOr<ProviderChangeEvent>;
   }
 
+  /// __(Android only)__ Execute an ordered list of method-calls in a single platform-channel round-trip.
+  ///
+  /// Each call is a `Map` of `method` (the native method name, eg: `getState`, `getCount`, `getOdometer`) and optional
+  /// `args`.  Calls are executed in order, each after the previous one has completed.  The returned `List` contains,
+  /// in the same order, `{method, result}` for each successful call or `{method, error: {code, message, details}}`
+  /// for a failed one;  a failed call doesn't prevent the subsequent calls from executing.
+  ///
+  /// ```dart
+  /// List results = await BackgroundGeolocation.batch([
+  ///   {'method': 'getState'},
+  ///   {'method': 'getCount'},
+  ///   {'method': 'getOdometer'},
+  ///   {'method': 'getProviderState'}
+  /// ]);
+  /// State state = State(results[0]['result']);
+  /// int count = results[1]['result'];
+  /// ```
+  ///
+  static Future<List> batch(List<Map<String, dynamic>> calls) async {
+    return (await _methodChannel.invokeListMethod('batch', calls))!;
+  }
+
+  /// __(Android only)__ Return performance metrics of the plugin's native layer, for attributing jank or battery drain.
+  ///
+  /// The returned `Map` contains:
+  /// - `methods`:  for each method-call (eg: `getLocations`), the reply latency histogram (`count`, `meanUs`,
+  ///   `maxUs`, `p50Us`, `p95Us`, `p99Us`, in microseconds), the number of `errors` and of native `exceptions`.
+  /// - `notImplemented`:  the number of calls to unknown methods.
+  /// - `streams`:  for each event-stream (eg: `location`), the number of events `emitted`, `delivered`, `dropped`
+  ///   and `coalesced` (see [StreamOptions.overflow]), `eventsPerSecond`, and the `delivery` (encoding) latency histogram.
+  /// - `headless`:  headless events `received` and `dispatched`, the current `queueDepth` and `maxQueueDepth`.
+  /// - `durationMs`:  the time since the metrics were last reset.
+  ///
+  /// Provide `reset: true` to reset the metrics after reading them.
+  ///
+  /// ```dart
+  /// Map metrics = await BackgroundGeolocation.getPluginMetrics(reset: true);
+  /// print('[getPluginMetrics] ${metrics['streams']['location']}');
+  /// ```
+  ///
+  static Future<Map> getPluginMetrics({bool reset = false}) async {
+    return (await _methodChannel
+        .invokeMapMethod('getPluginMetrics', {'reset': reset}))!;
+  }
+
+  /// __(Android only)__ Periodically write [getPluginMetrics] to the plugin's log (see [Logger.getLog]) every
+  /// `interval` milliseconds.  Provide `0` to disable.
+  ///
+  /// ```dart
+  /// BackgroundGeolocation.setPluginMetricsLogInterval(60000);
+  /// ```
+  ///
+  static Future<bool> setPluginMetricsLogInterval(int interval) async {
+    return (await _methodChannel.invokeMethod<bool>(
+        'setPluginMetricsLogInterval', interval))!;
+  }
+
   /// Register with the Transistor Software demo server
   ///
 
@@ -1134,6 +1576,78 @@ class BackgroundGeolocation {
     }
   }
 
+  /// __(Android only)__ Configure native-side delivery of an event-stream, eg: [Event.LOCATION].
+  ///
+  /// The [StreamOptions] are provided to the native stream-handler when the stream is next subscribed-to.  Call this method
+  /// *before* registering your listener (eg: [onLocation]).  To change the options of a stream which already has listeners,
+  /// [removeListeners] and register them again.
+  ///
+  /// ## Example
+  ///
+  /// ```dart
+  /// BackgroundGeolocation.setStreamOptions(Event.LOCATION, StreamOptions(
+  ///   batchSize: 10,
+  ///   batchTimeout: 30000
+  /// ));
+  ///
+  /// BackgroundGeolocation.onLocation((Location location) {
+  ///   print('[onLocation] $location');
+  /// });
+  /// ```
+  ///
+  static void setStreamOptions(String event, StreamOptions options) {
+    _streamOptions[event] = options;
+    // Discard the cached stream so the next listener subscribes with the new options.
+    switch (event) {
+      case Event.LOCATION:
+        _eventsLocation = null;
+        break;
+      case Event.MOTIONCHANGE:
+        _eventsMotionChange = null;
+        break;
+      case Event.ACTIVITYCHANGE:
+        _eventsActivityChange = null;
+        break;
+      case Event.PROVIDERCHANGE:
+        _eventsProviderChange = null;
+        break;
+      case Event.GEOFENCESCHANGE:
+        _eventsGeofencesChange = null;
+        break;
+      case Event.GEOFENCE:
+        _eventsGeofence = null;
+        break;
+      case Event.HEARTBEAT:
+        _eventsHeartbeat = null;
+        break;
+      case Event.HTTP:
+        _eventsHttp = null;
+        break;
+      case Event.SCHEDULE:
+        _eventsSchedule = null;
+        break;
+      case Event.POWERSAVECHANGE:
+        _eventsPowerSaveChange = null;
+        break;
+      case Event.CONNECTIVITYCHANGE:
+        _eventsConnectivityChange = null;
+        break;
+      case Event.ENABLEDCHANGE:
+        _eventsEnabledChange = null;
+        break;
+      case Event.NOTIFICATIONACTION:
+        _eventsNotificationAction = null;
+        break;
+      case Event.AUTHORIZATION:
+        _eventsAuthorization = null;
+        break;
+    }
+  }
+
+  static Map<String, dynamic>? _streamArgs(String event) {
+    return _streamOptions[event]?.toMap();
+  }
+
   /// Subscribe to motionchange events
   ///
   /// Your `callback` will be executed each time the device has changed-state between **MOVING** or **STATIONARY**.
@@ -1153,7 +1667,7 @@ class BackgroundGeolocation {
   static void onMotionChange(Function(Location) callback) {
     if (_eventsMotionChange == null) {
       _eventsMotionChange = _eventChannelMotionChange
-          .receiveBroadcastStream()
+          .receiveBroadcastStream(_streamArgs(Event.MOTIONCHANGE))
           .map((dynamic event) => Location(event));
     }
     _registerSubscription(_eventsMotionChange!.listen(callback), callback);
@@ -1188,8 +1702,8 @@ class BackgroundGeolocation {
       [Function(LocationError)? failure]) {
     if (_eventsLocation == null) {
       _eventsLocation = _eventChannelLocation
-          .receiveBroadcastStream()
-          .map((dynamic event) => Location(event));
+          .receiveBroadcastStream(_streamArgs(Event.LOCATION))
+          .expand(_expandLocations);
     }
     _registerSubscription(
         _eventsLocation!.listen(success, onError: (dynamic error) {
@@ -1202,6 +1716,22 @@ class BackgroundGeolocation {
         success);
   }
 
+  // A batched delivery (see [StreamOptions.batchSize]) arrives as a List of locations.
+  static Iterable<Location> _expandLocations(dynamic event) {
+    if (event is List) {
+      return event.expand(_expandLocations);
+    }
+    if (_LocationDeltaDecoder.isFrame(event)) {
+      final Map? location = _locationDeltaDecoder.decode(event);
+      return (location != null) ? [Location(location)] : const [];
+    }
+    return [Location(event)];
+  }
+
+  // Decodes the frames of a delta-encoded location stream (see [StreamOptions.deltaEncoding]).
+  static final _LocationDeltaDecoder _locationDeltaDecoder =
+      _LocationDeltaDecoder();
+
   static void _onLocationError(LocationError error) {
     print(
         '[BackgroundGeolocation onLocation] ‼️ Unhandled location error: $error.\nYou should provide a failure callback as 2nd argument to BackgroundGeolocation.onLocation.\nEg:  BackgroundGeolocation.onLocation(_onLocation, (LocationError error) {\n\t// Handle LocationError here.\n\tprint("[onLocation] ERROR: \$error");\n});');
@@ -1222,7 +1752,7 @@ class BackgroundGeolocation {
   static void onActivityChange(Function(ActivityChangeEvent) callback) {
     if (_eventsActivityChange == null) {
       _eventsActivityChange = _eventChannelActivityChange
-          .receiveBroadcastStream()
+          .receiveBroadcastStream(_streamArgs(Event.ACTIVITYCHANGE))
           .map((dynamic event) {
         return ActivityChangeEvent(event['activity'], event['confidence']);
       });
@@ -1243,7 +1773,7 @@ class BackgroundGeolocation {
   static void onGeofence(Function(GeofenceEvent) callback) {
     if (_eventsGeofence == null) {
       _eventsGeofence = _eventChannelGeofence
-          .receiveBroadcastStream()
+          .receiveBroadcastStream(_streamArgs(Event.GEOFENCE))
           .map((dynamic event) => GeofenceEvent(event));
     }
     _registerSubscription(_eventsGeofence!.listen(callback), callback);
@@ -1287,7 +1817,7 @@ class BackgroundGeolocation {
   static void onGeofencesChange(Function(GeofencesChangeEvent) callback) {
     if (_eventsGeofencesChange == null) {
       _eventsGeofencesChange = _eventChannelGeofencesChange
-          .receiveBroadcastStream()
+          .receiveBroadcastStream(_streamArgs(Event.GEOFENCESCHANGE))
           .map((dynamic event) =>
               GeofencesChangeEvent(event['on'], event['off']));
     }
@@ -1324,7 +1854,7 @@ class BackgroundGeolocation {
   static void onHeartbeat(Function(HeartbeatEvent) callback) {
     if (_eventsHeartbeat == null) {
       _eventsHeartbeat = _eventChannelHeartbeat
-          .receiveBroadcastStream()
+          .receiveBroadcastStream(_streamArgs(Event.HEARTBEAT))
           .map((dynamic event) => HeartbeatEvent(event));
     }
     _registerSubscription(_eventsHeartbeat!.listen(callback), callback);
@@ -1346,7 +1876,7 @@ class BackgroundGeolocation {
   static void onHttp(Function(HttpEvent) callback) {
     if (_eventsHttp == null) {
       _eventsHttp = _eventChannelHttp
-          .receiveBroadcastStream()
+          .receiveBroadcastStream(_streamArgs(Event.HTTP))
           .map((dynamic event) => HttpEvent(event));
     }
     _registerSubscription(_eventsHttp!.listen(callback), callback);
@@ -1371,7 +1901,7 @@ class BackgroundGeolocation {
   static void onSchedule(Function(State) callback) {
     if (_eventsSchedule == null) {
       _eventsSchedule = _eventChannelSchedule
-          .receiveBroadcastStream()
+          .receiveBroadcastStream(_streamArgs(Event.SCHEDULE))
           .map((dynamic event) => State(event));
     }
     _registerSubscription(_eventsSchedule!.listen(callback), callback);
@@ -1426,7 +1956,7 @@ class BackgroundGeolocation {
   static void onProviderChange(Function(ProviderChangeEvent) callback) {
     if (_eventsProviderChange == null) {
       _eventsProviderChange = _eventChannelProviderChange
-          .receiveBroadcastStream()
+          .receiveBroadcastStream(_streamArgs(Event.PROVIDERCHANGE))
           .map((dynamic event) {
         return ProviderChangeEvent(event);
       });
@@ -1448,7 +1978,7 @@ class BackgroundGeolocation {
   static void onConnectivityChange(Function(ConnectivityChangeEvent) callback) {
     if (_eventsConnectivityChange == null) {
       _eventsConnectivityChange = _eventChannelConnectivityChange
-          .receiveBroadcastStream()
+          .receiveBroadcastStream(_streamArgs(Event.CONNECTIVITYCHANGE))
           .map((dynamic event) {
         return ConnectivityChangeEvent(event['connected']);
       });
@@ -1472,7 +2002,7 @@ class BackgroundGeolocation {
   static void onEnabledChange(Function(bool) callback) {
     if (_eventsEnabledChange == null) {
       _eventsEnabledChange = _eventChannelEnabledChange
-          .receiveBroadcastStream()
+          .receiveBroadcastStream(_streamArgs(Event.ENABLEDCHANGE))
           .map((dynamic enabled) => enabled as bool);
     }
     _registerSubscription(_eventsEnabledChange!.listen(callback), callback);
@@ -1507,7 +2037,7 @@ class BackgroundGeolocation {
   static void onPowerSaveChange(Function(bool) callback) {
     if (_eventsPowerSaveChange == null) {
       _eventsPowerSaveChange = _eventChannelPowerSaveChange
-          .receiveBroadcastStream()
+          .receiveBroadcastStream(_streamArgs(Event.POWERSAVECHANGE))
           .map((dynamic isPowerSaveMode) => isPowerSaveMode as bool);
     }
     _registerSubscription(_eventsPowerSaveChange!.listen(callback), callback);
@@ -1533,7 +2063,7 @@ class BackgroundGeolocation {
   static void onAuthorization(Function(AuthorizationEvent) callback) {
     if (_eventsAuthorization == null) {
       _eventsAuthorization = _eventChannelAuthorization
-          .receiveBroadcastStream()
+          .receiveBroadcastStream(_streamArgs(Event.AUTHORIZATION))
           .map((dynamic event) => AuthorizationEvent(event));
     }
     _registerSubscription(_eventsAuthorization!.listen(callback), callback);
@@ -1573,7 +2103,7 @@ class BackgroundGeolocation {
   static void onNotificationAction(Function(String) callback) {
     if (_eventsNotificationAction == null) {
       _eventsNotificationAction = _eventChannelNotificationAction
-          .receiveBroadcastStream()
+          .receiveBroadcastStream(_streamArgs(Event.NOTIFICATIONACTION))
           .map((dynamic action) => action as String);
     }
     _registerSubscription(
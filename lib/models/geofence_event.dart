@@ -245,7 +245,8 @@ class GeofenceEvent {
 
   GeofenceEvent(Map params) {
     // Remove geofence from location to prevent recursive creation of GeofenceEvent.
-    Map locationData = params['location'];
+    // [StreamOptions.fields] may exclude the location entirely.
+    Map locationData = params['location'] ?? {};
     locationData.remove("geofence");
 
     identifier = params['identifier'];
@@ -0,0 +1,50 @@
+part of '../flutter_background_geolocation.dart';
+
+/// __(Android only)__ A summary of the locations recorded within a time bucket (an hour or a day, in the device's time
+/// zone), returned by [BackgroundGeolocation.aggregateLocations].
+///
+/// Each segment between consecutive locations is attributed to the bucket of its later location.
+///
+class LocationAggregate {
+  /// Summarize by hour.
+  static const String BUCKET_HOUR = "hour";
+
+  /// Summarize by day.
+  static const String BUCKET_DAY = "day";
+
+  /// Start of the bucket (inclusive).
+  late DateTime start;
+
+  /// End of the bucket (exclusive).
+  late DateTime end;
+
+  /// Number of locations recorded within the bucket.
+  late int count;
+
+  /// Distance travelled, in meters (great-circle distance between consecutive locations).
+  late double distance;
+
+  /// Time spent moving, between consecutive locations which were both recorded while moving.
+  late Duration movingTime;
+
+  /// Number of transitions from moving to stationary.
+  late int stops;
+
+  /// Maximum reported speed, in meters / second;  `-1` when no location reported a speed.
+  late double maxSpeed;
+
+  LocationAggregate(Map data) {
+    start = DateTime.fromMillisecondsSinceEpoch(data['start']);
+    end = DateTime.fromMillisecondsSinceEpoch(data['end']);
+    count = data['count'];
+    distance = (data['distance'] as num).toDouble();
+    movingTime = Duration(milliseconds: data['movingTime']);
+    stops = data['stops'];
+    maxSpeed = (data['maxSpeed'] as num).toDouble();
+  }
+
+  /// String representation of `LocationAggregate` for `print` to logs.
+  String toString() {
+    return '[LocationAggregate start: $start, count: $count, distance: $distance, movingTime: $movingTime, stops: $stops, maxSpeed: $maxSpeed]';
+  }
+}
@@ -0,0 +1,50 @@
+part of '../flutter_background_geolocation.dart';
+
+/// __(Android only)__ Locations packed into primitive columns, returned by [BackgroundGeolocation.getLocationColumns].
+///
+/// Element `n` of each column belongs to the same record;  records are ordered by `timestamp`.  The columns are
+/// transferred across the platform-channel as typed-data, without a `Map` per record, making them well-suited to
+/// drawing long tracks (eg: a polyline of 50k points).  Missing values are `NaN` (`0` for [timestamp]).
+///
+/// ## Example
+///
+/// ```dart
+/// LocationColumns track = await BackgroundGeolocation.getLocationColumns(LocationQuery(
+///   start: DateTime.parse('2026-10-17'),
+///   end: DateTime.parse('2026-10-18')
+/// ));
+/// List<LatLng> points = List.generate(track.length, (n) => LatLng(track.latitude[n], track.longitude[n]));
+/// ```
+///
+class LocationColumns {
+  /// Latitude of each record.
+  late Float64List latitude;
+
+  /// Longitude of each record.
+  late Float64List longitude;
+
+  /// Timestamp of each record, in epoch milliseconds.
+  late Int64List timestamp;
+
+  /// Horizontal accuracy of each record, in meters.
+  late Float32List accuracy;
+
+  /// Speed of each record, in meters / second.
+  late Float32List speed;
+
+  LocationColumns(Map data) {
+    latitude = data['latitude'] ?? Float64List(0);
+    longitude = data['longitude'] ?? Float64List(0);
+    timestamp = data['timestamp'] ?? Int64List(0);
+    accuracy = data['accuracy'] ?? Float32List(0);
+    speed = data['speed'] ?? Float32List(0);
+  }
+
+  /// The number of records.
+  int get length => latitude.length;
+
+  /// String representation of `LocationColumns` for `print` to logs.
+  String toString() {
+    return '[LocationColumns length: $length]';
+  }
+}
@@ -0,0 +1,79 @@
+part of '../flutter_background_geolocation.dart';
+
+/// Reconstructs locations from the delta-encoded frames of the native location stream (see [StreamOptions.deltaEncoding]).
+///
+/// A `keyframe` carries a complete location;  a `delta` carries only the keys which changed since the previous frame,
+/// with `latitude` / `longitude` as integer deltas in units of 1e-7 degrees and `timestamp` as a millisecond delta.
+/// When a frame is missing (eg: discarded by the native event-queue), deltas are ignored until the next keyframe.
+///
+/// Because the location stream is a broadcast stream, each listener decodes every frame:  the most recent result is
+/// cached by `seq` so a frame is only applied once.
+///
+/// Must be kept in sync with the Android `LocationDeltaEncoder`.
+class _LocationDeltaDecoder {
+  static const double _e7 = 1e7;
+
+  int? _seq;
+  Map? _location;
+  int _latE7 = 0;
+  int _lngE7 = 0;
+
+  /// Returns `true` if [event] is a delta-encoding frame rather than a location.
+  static bool isFrame(dynamic event) =>
+      (event is Map) && (event['frame'] is String) && (event['seq'] is int);
+
+  /// Returns the location encoded by [frame], or `null` if it can't be decoded until the next keyframe.
+  Map? decode(Map frame) {
+    final int seq = frame['seq'];
+    if (seq == _seq) return _location;
+
+    if (frame['frame'] == 'keyframe') {
+      _location = frame['data'] as Map;
+      _latE7 = frame['latE7'] ?? 0;
+      _lngE7 = frame['lngE7'] ?? 0;
+    } else if ((_location != null) && (_seq != null) && (seq == _seq! + 1)) {
+      _location = _applyDelta(_location!, frame);
+    } else {
+      // Missed a frame:  wait for the next keyframe.
+      _location = null;
+    }
+    _seq = seq;
+    return _location;
+  }
+
+  Map _applyDelta(Map previous, Map frame) {
+    final Map location = Map.of(previous);
+    final Map? previousCoords = previous['coords'];
+    final Map? coords = (previousCoords != null) ? Map.of(previousCoords) : null;
+
+    if (frame['dlat'] != null && coords != null) {
+      _latE7 += frame['dlat'] as int;
+      _lngE7 += frame['dlng'] as int;
+      coords['latitude'] = _latE7 / _e7;
+      coords['longitude'] = _lngE7 / _e7;
+    }
+    if (frame['dt'] != null) {
+      final dynamic timestamp = previous['timestamp'];
+      final int dt = frame['dt'];
+      if (timestamp is String) {
+        location['timestamp'] = DateTime.parse(timestamp)
+            .add(Duration(milliseconds: dt))
+            .toUtc()
+            .toIso8601String();
+      } else if (timestamp is num) {
+        location['timestamp'] = timestamp.toInt() + dt;
+      }
+    }
+    (frame['removed'] as List?)?.forEach(location.remove);
+    final Map? changed = frame['changed'];
+    if (changed != null) location.addAll(changed);
+
+    if (coords != null) {
+      (frame['removedCoords'] as List?)?.forEach(coords.remove);
+      final Map? changedCoords = frame['coords'];
+      if (changedCoords != null) coords.addAll(changedCoords);
+      location['coords'] = coords;
+    }
+    return location;
+  }
+}
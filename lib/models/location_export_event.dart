@@ -0,0 +1,49 @@
+part of '../flutter_background_geolocation.dart';
+
+/// __(Android only)__ An event of the location export stream returned by [BackgroundGeolocation.exportLocations].
+///
+/// The export emits a [TYPE_CHUNK] event for each chunk of records followed by a single [TYPE_COMPLETE] event, after
+/// which the stream closes.
+///
+class LocationExportEvent {
+  /// A chunk of exported [locations].
+  static const String TYPE_CHUNK = "chunk";
+
+  /// The export has finished;  no further events follow.
+  static const String TYPE_COMPLETE = "complete";
+
+  /// [TYPE_CHUNK] or [TYPE_COMPLETE].
+  late String type;
+
+  /// The location records of this chunk, as stored in the plugin's SQLite database (the same form as [BackgroundGeolocation.locations]).
+  /// Empty for [TYPE_COMPLETE].
+  late List locations;
+
+  /// Index of this chunk (`0`-based).
+  late int index;
+
+  /// Number of records exported so far, including this chunk.
+  late int exported;
+
+  /// Total number of records being exported.
+  late int total;
+
+  LocationExportEvent(Map data) {
+    type = data['type'];
+    locations = (data['locations'] as List?) ?? [];
+    index = data['index'] ?? 0;
+    exported = data['exported'] ?? 0;
+    total = data['total'] ?? 0;
+  }
+
+  /// `true` when this is the final event of the export.
+  bool get isComplete => type == TYPE_COMPLETE;
+
+  /// Fraction of the records exported so far, from `0.0` to `1.0`.
+  double get progress => (total > 0) ? exported / total : 1.0;
+
+  /// String representation of `LocationExportEvent` for `print` to logs.
+  String toString() {
+    return '[LocationExportEvent type: $type, locations: ${locations.length}, exported: $exported/$total]';
+  }
+}
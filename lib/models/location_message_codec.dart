@@ -0,0 +1,65 @@
+part of '../flutter_background_geolocation.dart';
+
+/// Decodes the compact location records written by the native location, motionchange and watchPosition streams.
+///
+/// A packed record is a fixed-layout sequence of coords doubles (`NaN` when absent), `odometer`, an int64 `timestamp`
+/// and a flags byte, followed by the remaining keys as a standard `Map`.  The result is the same `Map` structure
+/// as an un-packed location, so it's consumed by [Location] unchanged.  Values of any other type are decoded as
+/// with [StandardMessageCodec].
+///
+/// Must be kept in sync with the Android `LocationMessageCodec`.
+class _LocationMessageCodec extends StandardMessageCodec {
+  const _LocationMessageCodec();
+
+  static const int _valuePackedLocation = 128;
+
+  static const int _flagHasTimestamp = 1;
+  static const int _flagIsoTimestamp = 1 << 1;
+  static const int _flagHasIsMoving = 1 << 2;
+  static const int _flagIsMoving = 1 << 3;
+
+  static const List<String> _coordsKeys = [
+    'latitude',
+    'longitude',
+    'accuracy',
+    'speed',
+    'speed_accuracy',
+    'heading',
+    'heading_accuracy',
+    'altitude',
+    'altitude_accuracy',
+    'ellipsoidal_altitude'
+  ];
+
+  @override
+  dynamic readValueOfType(int type, ReadBuffer buffer) {
+    if (type != _valuePackedLocation) {
+      return super.readValueOfType(type, buffer);
+    }
+    final Map coords = {};
+    for (final String key in _coordsKeys) {
+      final double value = buffer.getFloat64();
+      if (!value.isNaN) coords[key] = value;
+    }
+    final double odometer = buffer.getFloat64();
+    final int timestamp = buffer.getInt64();
+    final int flags = buffer.getUint8();
+
+    final Map location = Map.of(readValue(buffer) as Map);
+    final dynamic extraCoords = location['coords'];
+    if (extraCoords is Map) coords.addAll(extraCoords);
+    location['coords'] = coords;
+
+    if (!odometer.isNaN) location['odometer'] = odometer;
+    if ((flags & _flagHasTimestamp) != 0) {
+      location['timestamp'] = ((flags & _flagIsoTimestamp) != 0)
+          ? DateTime.fromMillisecondsSinceEpoch(timestamp, isUtc: true)
+              .toIso8601String()
+          : timestamp;
+    }
+    if ((flags & _flagHasIsMoving) != 0) {
+      location['is_moving'] = (flags & _flagIsMoving) != 0;
+    }
+    return location;
+  }
+}
@@ -0,0 +1,36 @@
+part of '../flutter_background_geolocation.dart';
+
+/// __(Android only)__ One page of persisted locations, returned by [BackgroundGeolocation.getLocationsPage].
+///
+/// ## Example
+///
+/// ```dart
+/// String? cursor;
+/// do {
+///   LocationPage page = await BackgroundGeolocation.getLocationsPage(limit: 500, cursor: cursor);
+///   await upload(page.locations);
+///   cursor = page.cursor;
+/// } while (cursor != null);
+/// ```
+///
+class LocationPage {
+  /// The location records of this page, as stored in the plugin's SQLite database (the same form as [BackgroundGeolocation.locations]).
+  late List locations;
+
+  /// Opaque cursor to provide to [BackgroundGeolocation.getLocationsPage] to fetch the following page.  `null` when
+  /// this is the last page.
+  String? cursor;
+
+  LocationPage(Map data) {
+    locations = (data['locations'] as List?) ?? [];
+    cursor = data['cursor'];
+  }
+
+  /// `true` when further records follow this page.
+  bool get hasMore => cursor != null;
+
+  /// String representation of `LocationPage` for `print` to logs.
+  String toString() {
+    return '[LocationPage locations: ${locations.length}, cursor: $cursor]';
+  }
+}
@@ -0,0 +1,74 @@
+part of '../flutter_background_geolocation.dart';
+
+/// __(Android only)__ Selects a subset of the locations stored in the plugin's SQLite database, evaluated natively.
+/// Used with the methods [BackgroundGeolocation.getLocations], [BackgroundGeolocation.getCount] and
+/// [BackgroundGeolocation.destroyLocations].
+///
+/// In addition to the [SQLQuery] time-range ([start] / [end], inclusive), [order] and [limit], a [LocationQuery] may
+/// constrain records to a lat / lng bounding-box and [simplify] the resulting track.  Records are ordered by `timestamp`.
+///
+/// ```dart
+/// // Locations recorded yesterday within a bounding-box.
+/// List locations = await BackgroundGeolocation.getLocations(LocationQuery(
+///   start: DateTime.parse('2026-10-17'),
+///   end: DateTime.parse('2026-10-18'),
+///   minLatitude: 45.50,
+///   minLongitude: -73.60,
+///   maxLatitude: 45.55,
+///   maxLongitude: -73.55
+/// ));
+///
+/// // Destroy all locations older than 7 days.
+/// await BackgroundGeolocation.destroyLocations(LocationQuery(
+///   end: DateTime.now().subtract(Duration(days: 7))
+/// ));
+/// ```
+///
+class LocationQuery extends SQLQuery {
+  /// Southern edge of the bounding-box.
+  double? minLatitude;
+
+  /// Western edge of the bounding-box.  A box crossing the anti-meridian has [minLongitude] greater than [maxLongitude].
+  double? minLongitude;
+
+  /// Northern edge of the bounding-box.
+  double? maxLatitude;
+
+  /// Eastern edge of the bounding-box.
+  double? maxLongitude;
+
+  /// Simplify the selected track (Douglas-Peucker) with this tolerance in meters, before [limit] is applied:  records
+  /// lying within [simplify] of the line between the retained records around them are omitted.  Ignored by
+  /// [BackgroundGeolocation.destroyLocations].
+  double? simplify;
+
+  LocationQuery(
+      {DateTime? start,
+      DateTime? end,
+      int? order,
+      int? limit,
+      this.minLatitude,
+      this.minLongitude,
+      this.maxLatitude,
+      this.maxLongitude,
+      this.simplify})
+      : super(start: start, end: end, order: order, limit: limit);
+
+  /// Return `Map` representation of `LocationQuery` for communication to native platform.
+  Map<String, dynamic> toMap() {
+    Map<String, dynamic> query = super.toMap();
+    if (simplify != null) query["simplify"] = simplify;
+    if ((minLatitude != null) ||
+        (minLongitude != null) ||
+        (maxLatitude != null) ||
+        (maxLongitude != null)) {
+      query["bounds"] = {
+        "minLatitude": minLatitude,
+        "minLongitude": minLongitude,
+        "maxLatitude": maxLatitude,
+        "maxLongitude": maxLongitude
+      };
+    }
+    return query;
+  }
+}
@@ -0,0 +1,198 @@
+part of '../flutter_background_geolocation.dart';
+
+/// __(Android only)__ Native-side delivery options for a plugin event-stream.
+///
+/// Applied to an event (eg: [Event.LOCATION]) with [BackgroundGeolocation.setStreamOptions].  The options are
+/// sent to the native stream-handler when the stream is subscribed to, so they only affect how events are delivered
+/// to *this* Flutter engine; they have no effect upon what the SDK records or uploads.
+///
+/// ## Example
+///
+/// ```dart
+/// // Deliver locations in batches of up to 10, waiting no longer than 30s for a batch to fill.
+/// BackgroundGeolocation.setStreamOptions(Event.LOCATION, StreamOptions(
+///   batchSize: 10,
+///   batchTimeout: 30000
+/// ));
+///
+/// BackgroundGeolocation.onLocation((Location location) {
+///   print('[onLocation] $location');
+/// });
+/// ```
+///
+class StreamOptions {
+  /// When the native event-queue is full, discard the oldest queued event.
+  static const String OVERFLOW_DROP_OLDEST = "drop-oldest";
+
+  /// When the native event-queue is full, discard the incoming event.
+  static const String OVERFLOW_DROP_NEWEST = "drop-newest";
+
+  /// When the native event-queue is full, replace the most-recently queued event with the incoming one.
+  /// Suited to state-like streams (eg: [Event.PROVIDERCHANGE]) where only the latest value matters.
+  static const String OVERFLOW_COALESCE_LATEST = "coalesce-latest";
+
+  /// Deliver only events fired after subscribing (default).
+  static const String REPLAY_NONE = "none";
+
+  /// Upon subscribing, deliver the current state (or the last event fired).  For [Event.PROVIDERCHANGE],
+  /// [Event.ENABLEDCHANGE] and [Event.POWERSAVECHANGE] the current state is read directly from the SDK;  other streams
+  /// replay the most recent event recorded by the native stream-handler.
+  static const String REPLAY_LAST = "last";
+
+  /// Upon subscribing, deliver up to [replaySize] of the most recent events recorded by the native stream-handler.
+  static const String REPLAY_BUFFER = "buffer";
+
+  /// __[Event.LOCATION] only__:  Maximum number of locations to accumulate natively before delivering them
+  /// across the platform-channel in a single message.  Your callback is still executed once for each [Location].
+  ///
+  /// Defaults to `0` (no batching).
+  final int? batchSize;
+
+  /// __[Event.LOCATION] only__:  Maximum time in milliseconds the first location of a partial batch will wait before
+  /// the batch is delivered, regardless of [batchSize].
+  ///
+  /// Defaults to `10000`.
+  final int? batchTimeout;
+
+  /// Maximum number of events held natively while waiting to be delivered to Dart.  When a burst of events exceeds this limit,
+  /// the [overflow] policy decides which event is discarded.
+  ///
+  /// Defaults to `256`.
+  final int? queueSize;
+
+  /// Policy applied when the native event-queue is full:  [OVERFLOW_DROP_OLDEST] (default), [OVERFLOW_DROP_NEWEST]
+  /// or [OVERFLOW_COALESCE_LATEST].
+  final String? overflow;
+
+  /// Replay policy applied when the stream is subscribed-to:  [REPLAY_NONE] (default), [REPLAY_LAST] or [REPLAY_BUFFER].
+  ///
+  /// Useful to immediately receive the current state of [Event.PROVIDERCHANGE], [Event.ENABLEDCHANGE],
+  /// [Event.POWERSAVECHANGE] and [Event.CONNECTIVITYCHANGE] after a hot-restart or when your app resumes,
+  /// without separately requesting it (eg: [BackgroundGeolocation.providerState]).
+  ///
+  /// Replayed events are delivered with this subscription's own options ([fields], filtering, batching and encoding),
+  /// regardless of the options of the subscription which originally received them.
+  ///
+  /// ```dart
+  /// BackgroundGeolocation.setStreamOptions(Event.PROVIDERCHANGE, StreamOptions(
+  ///   replay: StreamOptions.REPLAY_LAST
+  /// ));
+  /// ```
+  final String? replay;
+
+  /// __[REPLAY_BUFFER] only__:  Maximum number of recent events to replay.  Defaults to `10`.
+  final int? replaySize;
+
+  /// __[Event.LOCATION], [Event.MOTIONCHANGE], [Event.GEOFENCE] and [Event.HEARTBEAT] only__:  Restrict each event
+  /// to the provided keys, expressed as dotted paths relative to the event's `Map` (see [Location.map]).  Only the
+  /// requested keys are serialized across the platform-channel;  absent properties of the resulting [Location] receive
+  /// their default values.
+  ///
+  /// [GeofenceEvent] always includes its `identifier`, `action`, `timestamp` and `geofence`.
+  ///
+  /// ```dart
+  /// BackgroundGeolocation.setStreamOptions(Event.LOCATION, StreamOptions(
+  ///   fields: ['timestamp', 'coords.latitude', 'coords.longitude']
+  /// ));
+  ///
+  /// // Heartbeat fields are relative to the heartbeat event.
+  /// BackgroundGeolocation.setStreamOptions(Event.HEARTBEAT, StreamOptions(
+  ///   fields: ['location.coords']
+  /// ));
+  /// ```
+  final List<String>? fields;
+
+  /// __[Event.LOCATION] only__:  Discard locations whose `coords.accuracy` exceeds this many meters before they're
+  /// sent to Dart.
+  ///
+  /// The location filters ([maxAccuracy], [minDistance], [minInterval]) only affect delivery to your [BackgroundGeolocation.onLocation]
+  /// callback:  the SDK continues to record and upload every location.
+  final double? maxAccuracy;
+
+  /// __[Event.LOCATION] only__:  Discard locations fewer than this many meters from the last location delivered to Dart.
+  final double? minDistance;
+
+  /// __[Event.LOCATION] only__:  Discard locations recorded fewer than this many milliseconds after the last location
+  /// delivered to Dart.
+  ///
+  /// ```dart
+  /// // Live-map:  at most one reasonably accurate location every 5s.
+  /// BackgroundGeolocation.setStreamOptions(Event.LOCATION, StreamOptions(
+  ///   maxAccuracy: 50,
+  ///   minDistance: 5,
+  ///   minInterval: 5000
+  /// ));
+  /// ```
+  final int? minInterval;
+
+  /// __[Event.LOCATION] only__:  Delta-encode the location stream.  A complete location (a *keyframe*) is sent every
+  /// [keyframeInterval] locations;  in between, only the values which changed are sent, with `latitude` / `longitude`
+  /// quantized to 1e-7 degrees (~1cm).  Locations are re-assembled before your callback receives them.
+  ///
+  /// Reduces the size of each event during high-frequency tracking.  Should a location be discarded by the native
+  /// event-queue (see [queueSize]), the next location is sent as a keyframe.
+  ///
+  /// ```dart
+  /// BackgroundGeolocation.setStreamOptions(Event.LOCATION, StreamOptions(
+  ///   deltaEncoding: true,
+  ///   keyframeInterval: 20
+  /// ));
+  /// ```
+  final bool? deltaEncoding;
+
+  /// __[deltaEncoding] only__:  Send a complete location every this many locations.  Defaults to `10`.
+  final int? keyframeInterval;
+
+  /// __[Event.LOCATION] only__:  Simplify the live location stream with a tolerance in meters, discarding locations
+  /// which lie within [simplifyTolerance] of the straight line between the locations delivered around them (an
+  /// opening-window variant of Douglas-Peucker).
+  ///
+  /// Each location is held until a following location shows whether it's required, so delivery lags by one location
+  /// (at most 10 seconds).  Recording and uploading are unaffected.
+  ///
+  /// ```dart
+  /// BackgroundGeolocation.setStreamOptions(Event.LOCATION, StreamOptions(
+  ///   simplifyTolerance: 10
+  /// ));
+  /// ```
+  final double? simplifyTolerance;
+
+  const StreamOptions(
+      {this.batchSize,
+      this.batchTimeout,
+      this.queueSize,
+      this.overflow,
+      this.replay,
+      this.replaySize,
+      this.fields,
+      this.maxAccuracy,
+      this.minDistance,
+      this.minInterval,
+      this.deltaEncoding,
+      this.keyframeInterval,
+      this.simplifyTolerance});
+
+  /// Return `Map` representation of `StreamOptions` for communication to native platform.
+  Map<String, dynamic> toMap() {
+    Map<String, dynamic> options = {};
+    if (batchSize != null) options['batchSize'] = batchSize;
+    if (batchTimeout != null) options['batchTimeout'] = batchTimeout;
+    if (queueSize != null) options['queueSize'] = queueSize;
+    if (overflow != null) options['overflow'] = overflow;
+    if (replay != null) options['replay'] = replay;
+    if (replaySize != null) options['replaySize'] = replaySize;
+    if (fields != null) options['fields'] = fields;
+    if (maxAccuracy != null) options['maxAccuracy'] = maxAccuracy;
+    if (minDistance != null) options['minDistance'] = minDistance;
+    if (minInterval != null) options['minInterval'] = minInterval;
+    if (deltaEncoding != null) options['deltaEncoding'] = deltaEncoding;
+    if (keyframeInterval != null) options['keyframeInterval'] = keyframeInterval;
+    if (simplifyTolerance != null) options['simplifyTolerance'] = simplifyTolerance;
+    return options;
+  }
+
+  /// String representation of `StreamOptions` for `print` to logs.
+  String toString() {
+    return '[StreamOptions ${toMap()}]';
+  }
+}
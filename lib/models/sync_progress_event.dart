@@ -0,0 +1,66 @@
+part of '../flutter_background_geolocation.dart';
+
+/// __(Android only)__ An event of the sync stream returned by [BackgroundGeolocation.syncWithProgress].
+///
+/// A [TYPE_PROGRESS] event is emitted for each HTTP request of the upload, followed by a single [TYPE_COMPLETE]
+/// event, after which the stream closes.  With [HttpConfig.batchSync] enabled, each request uploads up to
+/// [HttpConfig.maxBatchSize] records.
+///
+class SyncProgressEvent {
+  /// An HTTP request of the sync has completed.
+  static const String TYPE_PROGRESS = "progress";
+
+  /// The sync has finished;  no further events follow.
+  static const String TYPE_COMPLETE = "complete";
+
+  /// [TYPE_PROGRESS] or [TYPE_COMPLETE].
+  late String type;
+
+  /// Number of records uploaded so far:  the records posted by the successful requests of this sync, according to
+  /// [HttpConfig.batchSync] / [HttpConfig.maxBatchSize].
+  late int synced;
+
+  /// Number of records in the database when the sync began.
+  late int total;
+
+  /// [TYPE_PROGRESS] only:  `1`-based index of the HTTP request.
+  int? request;
+
+  /// [TYPE_PROGRESS] only:  `true` when the server responded with a successful HTTP status.
+  bool? success;
+
+  /// [TYPE_PROGRESS] only:  HTTP status of the response.
+  int? status;
+
+  /// [TYPE_PROGRESS] only:  milliseconds since the previous response (or since the sync began).
+  int? latencyMs;
+
+  /// [TYPE_PROGRESS] only:  size of the response body in bytes.
+  int? responseBytes;
+
+  /// [TYPE_COMPLETE] only:  the synced records, when requested with `echo: true`.
+  List? locations;
+
+  SyncProgressEvent(Map data) {
+    type = data['type'];
+    synced = data['synced'] ?? 0;
+    total = data['total'] ?? 0;
+    request = data['request'] ?? data['requests'];
+    success = data['success'];
+    status = data['status'];
+    latencyMs = data['latencyMs'];
+    responseBytes = data['responseBytes'];
+    locations = data['locations'];
+  }
+
+  /// `true` when this is the final event of the sync.
+  bool get isComplete => type == TYPE_COMPLETE;
+
+  /// Fraction of the records synced so far, from `0.0` to `1.0`.
+  double get progress => (total > 0) ? (synced / total).clamp(0.0, 1.0) : 1.0;
+
+  /// String representation of `SyncProgressEvent` for `print` to logs.
+  String toString() {
+    return '[SyncProgressEvent type: $type, synced: $synced/$total, request: $request, status: $status, latencyMs: $latencyMs]';
+  }
+}